@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+#
+# Builds a trimmed runtime image for Workle with an AppCDS archive.
+#
+#   JAVA_HOME      JDK used to compile and link (must contain jmods/)
+#   JAVAFX_JMODS   directory holding the JavaFX jmods (javafx-jmods-<version> download)
+#   LIB_DIR        directory holding the AnimateFX and sqlite-jdbc jars
+#
+# Output: build/image, started with build/image/bin/workle [-unlimited]
+#
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BUILD="$ROOT/build"
+IMAGE="$BUILD/image"
+
+: "${JAVA_HOME:?JAVA_HOME must point to a JDK}"
+: "${JAVAFX_JMODS:?JAVAFX_JMODS must point to the JavaFX jmods directory}"
+: "${LIB_DIR:?LIB_DIR must point to the directory with the AnimateFX and sqlite-jdbc jars}"
+
+MODULES="$(grep -v '^#' "$ROOT/packaging/modules.txt" | paste -sd, -)"
+
+rm -rf "$BUILD"
+mkdir -p "$BUILD/classes" "$BUILD/app/lib"
+
+# ----------------------------------------------------------------------------------------------
+# Compile against the JavaFX modules and package the application jar
+# ----------------------------------------------------------------------------------------------
+echo "Compiling ..."
+find "$ROOT/src" -name '*.java' > "$BUILD/sources.txt"
+"$JAVA_HOME/bin/javac" -nowarn -d "$BUILD/classes" \
+        --module-path "$JAVAFX_JMODS" --add-modules "$MODULES" \
+        -cp "$LIB_DIR/*" @"$BUILD/sources.txt"
+cp -r "$ROOT/src/view" "$ROOT/src/resources" "$BUILD/classes/"
+
+CLASS_PATH=""
+for jar in "$LIB_DIR"/*.jar; do
+    cp "$jar" "$BUILD/app/lib/"
+    CLASS_PATH="$CLASS_PATH lib/$(basename "$jar")"
+done
+printf 'Main-Class: Launcher\nClass-Path:%s\n' "$CLASS_PATH" > "$BUILD/manifest.txt"
+"$JAVA_HOME/bin/jar" --create --file "$BUILD/app/workle.jar" --manifest "$BUILD/manifest.txt" -C "$BUILD/classes" .
+
+# ----------------------------------------------------------------------------------------------
+# Link a runtime holding only the modules Workle uses, then give the image its own base CDS archive
+# for the JDK and JavaFX classes; the dynamic application archive below is layered on top of it.
+# ----------------------------------------------------------------------------------------------
+echo "Linking runtime ($MODULES) ..."
+"$JAVA_HOME/bin/jlink" \
+        --module-path "$JAVA_HOME/jmods:$JAVAFX_JMODS" \
+        --add-modules "$MODULES" \
+        --strip-debug --no-header-files --no-man-pages --compress=2 \
+        --output "$IMAGE"
+"$IMAGE/bin/java" -Xshare:dump > /dev/null
+cp -r "$BUILD/app" "$IMAGE/app"
+
+# ----------------------------------------------------------------------------------------------
+# Training run: start a game, submit a guess and open the stats popup, dumping every class loaded
+# along the way into the application archive. Runs in a scratch directory so that the stats.dat it
+# touches is thrown away.
+# ----------------------------------------------------------------------------------------------
+echo "Training AppCDS archive ..."
+TRAINING_DIR="$(mktemp -d)"
+trap 'rm -rf "$TRAINING_DIR"' EXIT
+cp "$ROOT/workle.dat" "$TRAINING_DIR/"
+(cd "$TRAINING_DIR" && "$IMAGE/bin/java" --add-modules jdk.incubator.vector -XX:ArchiveClassesAtExit="$IMAGE/app/workle.jsa" \
+        -jar "$IMAGE/app/workle.jar" -cds-training)
+
+cat > "$IMAGE/bin/workle" <<'LAUNCHER'
+#!/usr/bin/env bash
+DIR="$(cd "$(dirname "$0")/.." && pwd)"
+exec "$DIR/bin/java" --add-modules jdk.incubator.vector -XX:SharedArchiveFile="$DIR/app/workle.jsa" -Xshare:auto -jar "$DIR/app/workle.jar" "$@"
+LAUNCHER
+chmod +x "$IMAGE/bin/workle"
+
+echo "Runtime image: $IMAGE ($(du -sh "$IMAGE" | cut -f1))"
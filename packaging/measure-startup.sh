@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+#
+# Compares cold-start time of the plain launch against the runtime image built by build-image.sh.
+# Each configuration is launched RUNS times with -measure-startup, which prints the milliseconds
+# between process start and the first pulse after the game window is shown, then exits.
+#
+#   JAVA_HOME      JDK used for the plain launch
+#   JAVAFX_LIB     directory holding the JavaFX SDK jars (javafx-sdk-<version>/lib)
+#   RUNS           launches per configuration (default 15, first launch of each is discarded)
+#
+# Needs a display; on a headless box run it under xvfb-run.
+#
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+IMAGE="$ROOT/build/image"
+RUNS="${RUNS:-15}"
+
+: "${JAVA_HOME:?JAVA_HOME must point to a JDK}"
+: "${JAVAFX_LIB:?JAVAFX_LIB must point to the JavaFX SDK lib directory}"
+[ -x "$IMAGE/bin/workle" ] || { echo "Run packaging/build-image.sh first" >&2; exit 1; }
+
+WORK_DIR="$(mktemp -d)"
+trap 'rm -rf "$WORK_DIR"' EXIT
+cp "$ROOT/workle.dat" "$WORK_DIR/"
+
+measure() {
+    local label="$1"; shift
+    local samples=()
+    for ((i = 0; i <= RUNS; i++)); do
+        local ms
+        ms="$(cd "$WORK_DIR" && "$@" -measure-startup 2>/dev/null | sed -n 's/^startup-ms=//p')"
+        [ "$i" -eq 0 ] && continue     # warm the page cache, keep the JVM itself cold
+        samples+=("$ms")
+    done
+    printf '%s\n' "${samples[@]}" | sort -n | awk -v label="$label" '
+        { v[NR] = $1 }
+        END { printf "%-28s min %5d ms   median %5d ms   max %5d ms   (n=%d)\n",
+                     label, v[1], v[int((NR + 1) / 2)], v[NR], NR }'
+}
+
+measure "plain (module path)" "$JAVA_HOME/bin/java" \
+        --module-path "$JAVAFX_LIB" --add-modules javafx.controls,javafx.fxml \
+        -jar "$IMAGE/app/workle.jar"
+measure "jlink image, no AppCDS" "$IMAGE/bin/java" -jar "$IMAGE/app/workle.jar"
+measure "jlink image + AppCDS" "$IMAGE/bin/workle"
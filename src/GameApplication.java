@@ -0,0 +1,158 @@
+import controller.GameController;
+import controller.MultiBoardController;
+import javafx.animation.PauseTransition;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+
+/**
+ * The JavaFX side of the game. Kept apart from {@link Launcher} so that the terminal mode never loads the toolkit.
+ */
+public class GameApplication extends Application {
+
+    private static boolean dailyWordOnly = true;
+
+    /** Number of boards to play at once; anything above 1 starts the multi-board variant **/
+    private static int boardCount = 1;
+
+    /** Run the scripted session used to train the AppCDS archive, then exit **/
+    private static boolean cdsTraining = false;
+
+    /** Print the time from JVM start until the game window is shown, then exit **/
+    private static boolean measureStartup = false;
+
+    /** Draw the game boards on a canvas instead of with a node per tile **/
+    private static boolean canvasBoard = false;
+
+    /**
+     * Starts the JavaFX toolkit and shows the game window; returns once the application exits.
+     */
+    static void launchGame(boolean dailyWordOnly, int boardCount, boolean canvasBoard, boolean cdsTraining,
+                           boolean measureStartup, String[] args) {
+
+        GameApplication.dailyWordOnly = dailyWordOnly;
+        GameApplication.boardCount = boardCount;
+        GameApplication.canvasBoard = canvasBoard;
+        GameApplication.cdsTraining = cdsTraining;
+        GameApplication.measureStartup = measureStartup;
+
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
+
+        // **********************************************************************************************
+        // Configure the stage
+        // **********************************************************************************************
+        primaryStage.setTitle("Workle");
+        primaryStage.getIcons().add(new Image("resources/icon.png"));
+
+        try {
+            FXMLLoader loader;
+            if (boardCount > 1) {
+                loader = new FXMLLoader(getClass().getResource("view/MultiBoardLayout.fxml"));
+                loader.setController(new MultiBoardController(boardCount, canvasBoard, primaryStage));
+            } else {
+                loader = new FXMLLoader(getClass().getResource("view/GameLayout.fxml"));
+                loader.setController(new GameController(dailyWordOnly, canvasBoard, primaryStage));
+            }
+
+            Scene scene = new Scene(loader.load());
+            primaryStage.setResizable(false);
+
+            primaryStage.setScene(scene);
+
+            if (measureStartup) {
+                primaryStage.setOnShown(event -> Platform.runLater(GameApplication::reportStartupTime));
+            } else if (cdsTraining) {
+                primaryStage.setOnShown(event -> runTrainingSession(scene));
+            }
+
+            primaryStage.show();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+    /**
+     * Prints the number of milliseconds between the JVM process starting and the first pulse after the game window
+     * was shown, then exits. Used by packaging/measure-startup.sh to compare launch configurations.
+     */
+    private static void reportStartupTime() {
+
+        Instant started = ProcessHandle.current().info().startInstant().orElse(null);
+        if (started != null) {
+            System.out.println("startup-ms=" + (System.currentTimeMillis() - started.toEpochMilli()));
+        }
+        Platform.exit();
+
+    }
+
+    /**
+     * Drives the game through the code paths a normal session touches (starting a game, submitting a guess and opening
+     * the stats popup) so that the classes they load end up in the AppCDS archive. The session is run from a scratch
+     * directory by packaging/build-image.sh, so the stats it may record are thrown away.
+     *
+     * @param scene The scene of the main game window
+     */
+    private static void runTrainingSession(Scene scene) {
+
+        // **********************************************************************************************
+        // Type and submit a guess once the keyboard handler has been registered
+        // **********************************************************************************************
+        PauseTransition typeGuess = new PauseTransition(Duration.millis(500));
+        typeGuess.setOnFinished(event -> {
+            for (char letter : "CRANE".toCharArray()) {
+                pressKey(scene, KeyCode.getKeyCode(String.valueOf(letter)), String.valueOf(letter));
+            }
+            pressKey(scene, KeyCode.ENTER, "\r");
+        });
+
+        // **********************************************************************************************
+        // After the reveal animation has finished, open the stats popup. The popup blocks in a nested
+        // event loop, so the timer that closes it has to be started first.
+        // **********************************************************************************************
+        PauseTransition showStats = new PauseTransition(Duration.millis(2500));
+        showStats.setOnFinished(event -> {
+            PauseTransition exit = new PauseTransition(Duration.millis(1000));
+            exit.setOnFinished(e -> {
+                for (Window window : new ArrayList<>(Window.getWindows())) {
+                    window.hide();
+                }
+                Platform.exit();
+            });
+            exit.play();
+
+            Node btnStats = scene.lookup("#btnStats");
+            if (btnStats instanceof Button) {
+                ((Button) btnStats).fire();
+            }
+        });
+
+        typeGuess.play();
+        showStats.play();
+
+    }
+
+    private static void pressKey(Scene scene, KeyCode code, String text) {
+
+        scene.getRoot().fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, text, text, code,
+                                               false, false, false, false));
+    }
+
+}
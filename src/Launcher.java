@@ -1,51 +1,91 @@
-import controller.GameController;
-import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-import javafx.scene.image.Image;
-import javafx.stage.Stage;
+import cli.ConsoleGame;
+import datasource.StatsDatasource;
+import metrics.Metrics;
+import util.DictionaryRegistry;
+import util.WordUtil;
 
-import java.io.IOException;
-
-public class Launcher extends Application {
+/**
+ * Entry point. Parses the command line and starts either the JavaFX game ({@link GameApplication}) or, with
+ * {@code -cli}, the terminal game. This class must not depend on JavaFX, or the terminal game would pay for loading
+ * it.
+ */
+public class Launcher {
 
     private static boolean dailyWordOnly = true;
 
+    /** Number of boards to play at once; anything above 1 starts the multi-board variant **/
+    private static int boardCount = 1;
+
+    /** Language of the dictionary pack to play with **/
+    private static String language = DictionaryRegistry.DEFAULT_LANGUAGE;
+
+    /** Run the scripted session used to train the AppCDS archive, then exit **/
+    private static boolean cdsTraining = false;
+
+    /** Print the time from JVM start until the game window is shown, then exit **/
+    private static boolean measureStartup = false;
+
+    /** Play in the terminal instead of opening the game window **/
+    private static boolean cli = false;
+
+    /** Draw the game boards on a canvas instead of with a node per tile **/
+    private static boolean canvasBoard = false;
+
     public static void main(String[] args) {
         for (String arg : args) {
             if (arg.equalsIgnoreCase("-unlimited")) {
                 dailyWordOnly = false;
-
-                break;
+            } else if (arg.toLowerCase().startsWith("-boards=")) {
+                try {
+                    boardCount = Math.max(1, Math.min(16, Integer.parseInt(arg.substring("-boards=".length()))));
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring invalid board count: " + arg);
+                }
+            } else if (arg.toLowerCase().startsWith("-lang=")) {
+                language = arg.substring("-lang=".length());
+            } else if (arg.equalsIgnoreCase("-cds-training")) {
+                cdsTraining = true;
+            } else if (arg.equalsIgnoreCase("-measure-startup")) {
+                measureStartup = true;
+            } else if (arg.equalsIgnoreCase("-cli")) {
+                cli = true;
+            } else if (arg.equalsIgnoreCase("-canvas")) {
+                canvasBoard = true;
+            } else if (arg.equalsIgnoreCase("-turbo") || arg.equalsIgnoreCase("-turbo=on")) {
+                StatsDatasource.setSetting(StatsDatasource.TURBO_SETTING, "true");
+            } else if (arg.equalsIgnoreCase("-turbo=off")) {
+                StatsDatasource.setSetting(StatsDatasource.TURBO_SETTING, "false");
             }
         }
-        launch(args);
-    }
-
-    @Override
-    public void start(Stage primaryStage) {
-
-
 
         // **********************************************************************************************
-        // Configure the stage
+        // Select the dictionary pack; fall back to English if the requested language is not installed
         // **********************************************************************************************
-        primaryStage.setTitle("Workle");
-        primaryStage.getIcons().add(new Image("resources/icon.png"));
-
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("view/GameLayout.fxml"));
-            loader.setController(new GameController(dailyWordOnly, primaryStage));
-
-            Scene scene = new Scene(loader.load());
-            primaryStage.setResizable(false);
-
-            primaryStage.setScene(scene);
+        if (!DictionaryRegistry.DEFAULT_LANGUAGE.equalsIgnoreCase(language)) {
+            if (DictionaryRegistry.isAvailable(language)) {
+                WordUtil.setLanguage(language);
+            } else {
+                System.err.println("No dictionary pack for language '" + language + "', playing in English");
+            }
+        }
 
-            primaryStage.show();
-        } catch (IOException e) {
-            e.printStackTrace();
+        // **********************************************************************************************
+        // The terminal game never touches JavaFX (nor JMX, which costs more to start than it is worth
+        // for a quick game)
+        // **********************************************************************************************
+        if (cli) {
+            new ConsoleGame(dailyWordOnly).play();
+            return;
         }
 
+        // **********************************************************************************************
+        // Export the metrics over JMX without holding up the game window
+        // **********************************************************************************************
+        Thread metricsThread = new Thread(Metrics::register, "metrics-registration");
+        metricsThread.setDaemon(true);
+        metricsThread.start();
+
+        GameApplication.launchGame(dailyWordOnly, boardCount, canvasBoard, cdsTraining, measureStartup, args);
     }
+
 }
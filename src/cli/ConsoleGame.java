@@ -0,0 +1,322 @@
+package cli;
+
+import datasource.CheckpointDatasource;
+import datasource.StatsDatasource;
+import model.Checkpoint;
+import model.KeyboardState;
+import model.Profile;
+import model.Stats;
+import model.TileState;
+import util.Util;
+import util.WordUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays the game in a terminal, with the tiles colored by ANSI escape codes. Words are picked and scored by
+ * {@link WordUtil} and results are recorded in the stats of the active profile, exactly as in the game window; no
+ * JavaFX toolkit is ever started. Games are checkpointed after every guess and either front end resumes the other's
+ * unfinished game, under the rule of {@link CheckpointDatasource#loadResumable}.
+ * <p>
+ * Colors are left out when the output is not a terminal or the {@code NO_COLOR} environment variable is set; the tiles
+ * are then marked with brackets instead.
+ */
+public class ConsoleGame {
+
+    private static final int MAX_GUESSES = 6;
+
+    private static final String RESET = "\u001B[0m";
+
+    /** Background (and bold black text) for each tile state **/
+    private static final Map<TileState, String> TILE_COLORS = new EnumMap<>(TileState.class);
+
+    static {
+        TILE_COLORS.put(TileState.CORRECT, "\u001B[1;30;42m");
+        TILE_COLORS.put(TileState.PRESENT, "\u001B[1;30;43m");
+        TILE_COLORS.put(TileState.ABSENT, "\u001B[1;30;100m");
+    }
+
+    private static final String[] KEYBOARD_ROWS = {"QWERTYUIOP", "ASDFGHJKL", "ZXCVBNM"};
+
+    private final boolean dailyWordOnly;
+    private final boolean color;
+    private final PrintStream out;
+    private final BufferedReader in;
+
+    private Profile profile;
+    private Stats stats;
+    private boolean isDailyWord;
+
+    /**
+     * @param dailyWordOnly Only the daily word may be played; otherwise rotation words follow it
+     */
+    public ConsoleGame(boolean dailyWordOnly) {
+
+        this.dailyWordOnly = dailyWordOnly;
+        this.color = System.console() != null && System.getenv("NO_COLOR") == null;
+        this.out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        this.in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Plays games until the player quits, input ends or, in daily-only mode, today's word has been played.
+     */
+    public void play() {
+
+        profile = StatsDatasource.getActiveProfile();
+        stats = StatsDatasource.loadStats(profile.getId());
+
+        out.println("WORKLE - playing as " + profile.getName() + ". Type a 5-letter guess, or :q to quit.");
+
+        try {
+            do {
+                LocalDate today = LocalDate.now(ZoneId.systemDefault());
+                isDailyWord = !today.equals(stats.getLastCompletedDailyWord());
+                Checkpoint checkpoint = CheckpointDatasource.loadResumable(stats, isDailyWord, dailyWordOnly);
+
+                if (checkpoint == null && !isDailyWord && dailyWordOnly) {
+                    out.println("You've already played today's word! Come back again tomorrow!");
+                    return;
+                }
+                if (!playWord(checkpoint)) {
+                    return;
+                }
+            } while (!dailyWordOnly && confirm("Play another word? [Y/n] ", true));
+        } catch (IOException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+        } finally {
+            CheckpointDatasource.flush();
+        }
+    }
+
+    /**
+     * Plays one word to the end.
+     *
+     * @param checkpoint The unfinished game to pick up, or null to start a new word
+     * @return False if the player quit or input ended
+     */
+    private boolean playWord(Checkpoint checkpoint) throws IOException {
+
+        String secretWord;
+        LocalDate gameDate;
+        List<String> guesses = new ArrayList<>();
+        List<TileState[]> results = new ArrayList<>();
+        long keyboard;
+
+        if (checkpoint != null) {
+            // **********************************************************************************************
+            // Pick up the board where it was left, in the terminal or in the game window
+            // **********************************************************************************************
+            isDailyWord = checkpoint.isDailyWord();
+            gameDate = checkpoint.getDate();
+            secretWord = WordUtil.unpackWord(checkpoint.getPackedSecret());
+            keyboard = checkpoint.getKeyboardState();
+            for (int i = 0; i < checkpoint.getGuessCount(); i++) {
+                String guess = WordUtil.unpackWord(checkpoint.getPackedGuess(i));
+                guesses.add(guess);
+                results.add(WordUtil.checkGuess(guess, secretWord));
+            }
+            out.println("Resuming your game" + (isDailyWord ? " for " + formatDate(gameDate) : "") + ".");
+            printBoard(guesses, results);
+
+            // **********************************************************************************************
+            // The game may have gone down between the last guess being saved and the game being over
+            // **********************************************************************************************
+            if (guesses.get(guesses.size() - 1).equals(secretWord)) {
+                out.println("You win!");
+                recordGame(true, guesses.size(), gameDate);
+                printShareText(true, results);
+                return true;
+            }
+            printKeyboard(keyboard);
+        } else {
+            // **********************************************************************************************
+            // Starting a word drops the checkpoint of any earlier game, as starting a word in the game
+            // window does
+            // **********************************************************************************************
+            CheckpointDatasource.clear();
+            gameDate = LocalDate.now();
+            keyboard = KeyboardState.EMPTY;
+
+            if (isDailyWord) {
+                secretWord = WordUtil.getDailyWord();
+                out.println("Solving for " + formatDate(gameDate));
+            } else {
+                secretWord = WordUtil.getNextRotationWord();
+            }
+        }
+
+        while (guesses.size() < MAX_GUESSES) {
+            out.print("Guess " + (guesses.size() + 1) + "/" + MAX_GUESSES + ": ");
+            out.flush();
+            String line = in.readLine();
+
+            // **********************************************************************************************
+            // Quitting a game in progress counts as a loss, so that it can't be dodged by restarting
+            // **********************************************************************************************
+            if (line == null || line.trim().equalsIgnoreCase(":q")) {
+                if (guesses.isEmpty()) {
+                    return false;
+                }
+                if (line == null || confirm("Quitting now counts as a loss. Quit? [y/N] ", false)) {
+                    recordGame(false, guesses.size(), gameDate);
+                    out.println("The word was " + secretWord + ".");
+                    return false;
+                }
+                continue;
+            }
+
+            String guess = line.trim().toUpperCase();
+            if (guess.length() != WordUtil.WORD_LENGTH || !guess.chars().allMatch(Character::isLetter)) {
+                out.println("Guesses must be " + WordUtil.WORD_LENGTH + " letters!");
+                continue;
+            }
+            if (!WordUtil.isValidWord(guess)) {
+                out.println(WordUtil.getNotInWordListMessage(guess));
+                continue;
+            }
+
+            TileState[] states = WordUtil.checkGuess(guess, secretWord);
+            guesses.add(guess);
+            results.add(states);
+            keyboard = KeyboardState.merge(keyboard, WordUtil.getKeyboardTileStates(guess, secretWord));
+            saveCheckpoint(secretWord, gameDate, guesses, keyboard);
+
+            printBoard(guesses, results);
+            if (guess.equals(secretWord)) {
+                out.println("You win!");
+                recordGame(true, guesses.size(), gameDate);
+                printShareText(true, results);
+                return true;
+            }
+            printKeyboard(keyboard);
+        }
+
+        out.println("Sorry! The word was " + secretWord + ".");
+        recordGame(false, guesses.size(), gameDate);
+        printShareText(false, results);
+        return true;
+    }
+
+    private void recordGame(boolean win, int guessCount, LocalDate day) {
+
+        stats.recordGame(isDailyWord, win, guessCount, day);
+        StatsDatasource.writeStatsFile(stats);
+        CheckpointDatasource.clear();
+        printStats();
+    }
+
+    private void saveCheckpoint(String secretWord, LocalDate gameDate, List<String> guesses, long keyboard) {
+
+        int[] packedGuesses = new int[Checkpoint.MAX_GUESSES];
+        for (int i = 0; i < guesses.size(); i++) {
+            packedGuesses[i] = WordUtil.packWord(guesses.get(i));
+        }
+        CheckpointDatasource.save(new Checkpoint(profile.getId(), isDailyWord, gameDate, WordUtil.packWord(secretWord),
+                                                 packedGuesses, guesses.size(), keyboard));
+    }
+
+    private static String formatDate(LocalDate date) {
+
+        return date.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"));
+    }
+
+    private void printBoard(List<String> guesses, List<TileState[]> results) {
+
+        out.println();
+        for (int i = 0; i < guesses.size(); i++) {
+            StringBuilder row = new StringBuilder("  ");
+            for (int j = 0; j < WordUtil.WORD_LENGTH; j++) {
+                row.append(tile(guesses.get(i).charAt(j), results.get(i)[j]));
+            }
+            out.println(row);
+        }
+        out.println();
+    }
+
+    private void printKeyboard(long keyboard) {
+
+        for (int i = 0; i < KEYBOARD_ROWS.length; i++) {
+            StringBuilder row = new StringBuilder("  ").append(" ".repeat(i));
+            for (char key : KEYBOARD_ROWS[i].toCharArray()) {
+                row.append(tile(key, KeyboardState.get(keyboard, key)));
+            }
+            out.println(row);
+        }
+        out.println();
+    }
+
+    /**
+     * @return The letter as a colored tile, or marked [X] correct, (X) present and lower case absent without colors
+     */
+    private String tile(char letter, TileState state) {
+
+        if (color) {
+            String background = TILE_COLORS.get(state);
+            return background == null ? " " + letter + " " : background + " " + letter + " " + RESET;
+        }
+        switch (state) {
+            case CORRECT:
+                return "[" + letter + "]";
+            case PRESENT:
+                return "(" + letter + ")";
+            case ABSENT:
+                return " " + Character.toLowerCase(letter) + " ";
+            default:
+                return " " + letter + " ";
+        }
+    }
+
+    private void printStats() {
+
+        out.println("Played " + (stats.getDailyGamesPlayed() + stats.getGenGamesPlayed())
+                    + " | Daily streak " + stats.getDailyCurrentStreak() + " (best " + stats.getDailyLongestStreak()
+                    + ") | Unlimited streak " + stats.getGenCurrentStreak() + " (best "
+                    + stats.getGenLongestStreak() + ")");
+    }
+
+    /**
+     * Prints the same spoiler-free result grid the end game screen copies to the clipboard.
+     */
+    private void printShareText(boolean win, List<TileState[]> results) {
+
+        if (!isDailyWord) {
+            return;
+        }
+        StringBuilder share = new StringBuilder("Workle ")
+                .append(Util.BASE_DATE.until(LocalDate.now(), ChronoUnit.DAYS)).append(": ")
+                .append(!win ? "X" : results.size()).append("/6\n\n");
+        for (TileState[] states : results) {
+            for (TileState state : states) {
+                share.appendCodePoint(state.getCodepoint());
+            }
+            share.append("\n");
+        }
+        out.println(share);
+    }
+
+    private boolean confirm(String prompt, boolean defaultAnswer) throws IOException {
+
+        out.print(prompt);
+        out.flush();
+        String answer = in.readLine();
+        if (answer == null) {
+            return false;
+        }
+        answer = answer.trim();
+        return answer.isEmpty() ? defaultAnswer : answer.toLowerCase().startsWith("y");
+    }
+
+}
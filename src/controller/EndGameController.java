@@ -1,6 +1,6 @@
 package controller;
 
-import controls.GameTile;
+import controls.Tile;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -117,7 +117,7 @@ public class EndGameController {
         StringBuilder results = new StringBuilder("Workle ").append(gameNum).append(": ")
                                                             .append(!win ? "X" : guessNum).append("/6\n\n");
         for (int i = 0; i < guessNum; i++) {
-            for (GameTile gameTile : guesses.get(i).getGameTiles()) {
+            for (Tile gameTile : guesses.get(i).getGameTiles()) {
                 results.appendCodePoint(gameTile.getTileState().getCodepoint());
             }
             results.append("\n");
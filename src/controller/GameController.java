@@ -2,17 +2,20 @@ package controller;
 
 import animatefx.animation.AnimationFX;
 import animatefx.animation.SlideInUp;
+import controls.BoardCanvas;
 import controls.GameTile;
+import datasource.CheckpointDatasource;
 import datasource.StatsDatasource;
 import javafx.animation.Animation;
 import javafx.animation.SequentialTransition;
 import javafx.application.Platform;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
-import javafx.css.PseudoClass;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -20,14 +23,24 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.TilePane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import metrics.KeyboardUpdateEvent;
+import metrics.Metrics;
+import metrics.PopupLoadEvent;
+import model.Checkpoint;
+import model.Profile;
 import model.Guess;
+import model.KeyboardState;
 import model.Stats;
 import model.TileState;
+import solver.Hint;
+import solver.HintEngine;
+import util.PrefixTrie;
 import util.Util;
 import util.WordUtil;
 
@@ -37,6 +50,8 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -44,6 +59,12 @@ public class GameController {
 
     public static final Logger logger = Logger.getLogger("GameController");
 
+    /** Most keys held while a guess is being revealed; anything beyond is dropped **/
+    private static final int TYPE_AHEAD_LIMIT = 16;
+    private static final char TYPE_AHEAD_BACKSPACE = '\b';
+    private static final char TYPE_AHEAD_CLEAR = '\u001B';
+    private static final char TYPE_AHEAD_ENTER = '\n';
+
     private static final String[] winMessages = {"WOW! ON YOUR FIRST TRY!",
                                                  "SUPER!",
                                                  "EXCELLENT!",
@@ -51,8 +72,11 @@ public class GameController {
                                                  "NICELY DONE!",
                                                  "WHEW! JUST IN TIME!"};
 
+    /** The player whose games are being recorded **/
+    private Profile profile;
+
     /** Statistics for the player **/
-    private final Stats stats;
+    private Stats stats;
 
     /** Should players be allowed to play more than just the daily game? **/
     private final boolean dailyWordOnly;
@@ -61,10 +85,9 @@ public class GameController {
     private final List<Guess> guesses = new ArrayList<>(5);
     private final DoubleProperty stageX = new SimpleDoubleProperty();
     private final DoubleProperty stageY = new SimpleDoubleProperty();
-    /** Lists to track onscreen keyboard states; prevents them from being changed incorrectly **/
-    private final List<Character> correctKeys = new ArrayList<>();
-    private final List<Character> presentKeys = new ArrayList<>();
-    private final List<Character> absentKeys = new ArrayList<>();
+    /** Onscreen keyboard state (see KeyboardState), and the state currently shown on the keys **/
+    private long keyboardState = KeyboardState.EMPTY;
+    private long renderedKeyboardState = KeyboardState.EMPTY;
     /** Reference to the main game Stage and Scene **/
     private final Stage gameStage;
     private Scene thisScene;
@@ -72,7 +95,7 @@ public class GameController {
     // FXML elements
     // **********************************************************************************************
     @FXML
-    private Button btnHelp, btnStats, btnNew;   // Header buttons
+    private Button btnHelp, btnHint, btnProfile, btnStats, btnNew;   // Header buttons
     @FXML
     private Label lblDailyStatus;               // Label displayed when playing the daily word
     @FXML
@@ -93,8 +116,16 @@ public class GameController {
     private List<Button> onscreenKeyboardKeys;
     /** The secret word for the current game **/
     private String secretWord;
+    /** Reveal guesses at once, without animations (the turbo setting) **/
+    private final boolean turbo;
+    /** Draw the board on a canvas instead of using GameTile nodes **/
+    private final boolean canvasBoard;
+    /** The canvas the board is drawn on, in place of gameplayTilePane; null unless canvasBoard is set **/
+    private BoardCanvas boardCanvas;
     /** Is the current word the word-of-the-day? **/
     private boolean isDailyWord;
+    /** The date the current word was started on **/
+    private LocalDate gameDate;
     /** The current Guess object being used **/
     private Guess currentGuess;
     /** The current guess # (zero-based) **/
@@ -103,34 +134,59 @@ public class GameController {
     private boolean gameOver;
     /** Has an attempt on this guess been made yet? This will be false until at least one guess has been submitted **/
     private boolean attemptMade;
+    /** Is a submitted guess still being revealed? Input is held in typeAhead until the next row is active **/
+    private boolean revealing;
+    /** Keys pressed while a guess is being revealed: letters, TYPE_AHEAD_BACKSPACE, _CLEAR and _ENTER **/
+    private final StringBuilder typeAhead = new StringBuilder();
+    /** Trie nodes for each prefix of the current guess; prefixNodes[n] is the node for the first n letters **/
+    private final int[] prefixNodes = new int[6];
+    /** System.nanoTime() at the start of the FX pulse currently being laid out **/
+    private long pulseStart;
+    /** The hint being computed, if any; cancelled as soon as the board changes **/
+    private Task<Hint> hintTask;
+    /** Engine behind the Hint button; built on first use, off the FX thread **/
+    private HintEngine hintEngine;
+
+    /** Runs hint searches off the FX thread; the search itself fans out to the HintEngine's worker pool **/
+    private static final ExecutorService hintExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hint");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Constructor for the main game.
      *
      * @param dailyWordOnly Is the game locked down to only allow playing the daily word?
+     * @param canvasBoard   Draw the board on a single canvas rather than with a node per tile?
      */
-    public GameController(boolean dailyWordOnly, Stage primaryStage) {
+    public GameController(boolean dailyWordOnly, boolean canvasBoard, Stage primaryStage) {
 
         this.dailyWordOnly = dailyWordOnly;
+        this.canvasBoard = canvasBoard;
         this.gameStage = primaryStage;
 
         // **********************************************************************************************
-        // Load the stats from the stats.dat file
+        // Load the stats of the player who played last from the stats.dat store
         // **********************************************************************************************
-        this.stats = StatsDatasource.loadStats();
+        this.profile = StatsDatasource.getActiveProfile();
+        this.stats = StatsDatasource.loadStats(profile.getId());
+        this.turbo = Boolean.parseBoolean(StatsDatasource.getSetting(StatsDatasource.TURBO_SETTING, "false"));
+        updateDailyWordAvailability();
 
-        /** Set the last date a daily word was completed **/
-        /** The date of the last daily word completed. This allows us to have the daily word solved only once **/
-        LocalDate dailyWordLastCompletedOn = stats.getLastCompletedDailyWord();
+        logger.log(Level.INFO, "Initializing ...");
 
-        /** Compare today's date with the date a daily word was last completed; if they are the same date, then
-         * we know today's word has already been played. **/
-        /** Today's date **/
-        LocalDate today = LocalDate.now(ZoneId.systemDefault());
-        isDailyWord = !today.equals(dailyWordLastCompletedOn);
+    }
 
-        logger.log(Level.INFO, "Initializing ...");
+    /**
+     * Compares today's date with the date the player last completed a daily word; if they are the same date, then
+     * today's word has already been played and the next word will not be the daily word.
+     */
+    private void updateDailyWordAvailability() {
 
+        LocalDate dailyWordLastCompletedOn = stats.getLastCompletedDailyWord();
+        LocalDate today = LocalDate.now(ZoneId.systemDefault());
+        isDailyWord = !today.equals(dailyWordLastCompletedOn);
     }
 
     @FXML
@@ -146,6 +202,16 @@ public class GameController {
         // Disable the Next Word button if only daily word play is allowed
         // **********************************************************************************************
         btnNew.setDisable(dailyWordOnly);
+        btnProfile.setText(profile.getName());
+
+        // **********************************************************************************************
+        // With the canvas renderer, the canvas takes the place of the tile pane in the layout
+        // **********************************************************************************************
+        if (canvasBoard) {
+            boardCanvas = BoardCanvas.createLarge(6);
+            Pane boardParent = (Pane) gameplayTilePane.getParent();
+            boardParent.getChildren().set(boardParent.getChildren().indexOf(gameplayTilePane), boardCanvas);
+        }
 
         // **********************************************************************************************
         // Build the game board (this ensures the interface always displays a game board, even if the
@@ -153,51 +219,66 @@ public class GameController {
         // **********************************************************************************************
         initGameBoard();
 
+        // **********************************************************************************************
+        // Add all the onscreen keyboard buttons to our list; this allows for quick resetting of the
+        // visual styles when starting a new word.
+        // **********************************************************************************************
+        onscreenKeyboardKeys = Arrays.asList(keyQ, keyW, keyE, keyR, keyT, keyY, keyU, keyI, keyO, keyP,
+                                             keyA, keyS, keyD, keyF, keyG, keyH, keyJ, keyK, keyL,
+                                             keyZ, keyX, keyC, keyV, keyB, keyN, keyM);
+
         Platform.runLater(() -> {
 
             thisScene = btnHelp.getScene();
 
             // **********************************************************************************************
-            // Initialize the keyboard listener to allow players to enter letters with their physical
-            // keyboards.
+            // Time the scene graph part of every pulse for the FxPulse metric
             // **********************************************************************************************
-            initPhysicalKeyboard();
+            thisScene.addPreLayoutPulseListener(() -> pulseStart = System.nanoTime());
+            thisScene.addPostLayoutPulseListener(() -> Metrics.FX_PULSE.recordSince(pulseStart));
 
             // **********************************************************************************************
-            // After the scene is loaded, add all the onscreen keyboard buttons to our list; this allows
-            // for quick resetting of the visual styles when starting a new word.
-            // **********************************************************************************************
-            onscreenKeyboardKeys = Arrays.asList(keyQ, keyW, keyE, keyR, keyT, keyY, keyU, keyI, keyO, keyP,
-                                                 keyA, keyS, keyD, keyF, keyG, keyH, keyJ, keyK, keyL,
-                                                 keyZ, keyX, keyC, keyV, keyB, keyN, keyM);
-
-            // **********************************************************************************************
-            // If daily word has already been played and random words aren't allowed, disable the onscreen
-            // keyboard.
+            // Initialize the keyboard listener to allow players to enter letters with their physical
+            // keyboards.
             // **********************************************************************************************
-            if (!isDailyWord && dailyWordOnly) {
-
-                keyboardPane.setDisable(true);
-            }
+            initPhysicalKeyboard();
 
             // **********************************************************************************************
-            // When player exits the game, we check for forfeiture confirmation, if necessary
+            // When player exits the game, make sure the checkpoint of a game in progress reaches the disk
             // **********************************************************************************************
             initGameExit();
 
         });
 
+        beginSession();
+    }
+
+    /**
+     * Starts play for the current profile: resumes its unfinished game if there is one, or starts a new word.
+     */
+    private void beginSession() {
+
         // **********************************************************************************************
+        // If a game was left unfinished when the app was last closed, pick it up where it was left.
         // If the daily word has already been played (so isDailyWord will be false) and game doesn't
         // allow random words, show message to the player. Otherwise, go ahead and start a new word.
         // **********************************************************************************************
-        if (!isDailyWord && dailyWordOnly) {
+        Checkpoint checkpoint = CheckpointDatasource.loadResumable(stats, isDailyWord, dailyWordOnly);
+        if (checkpoint != null) {
+            resumeGame(checkpoint);
+        } else if (!isDailyWord && dailyWordOnly) {
+            // **********************************************************************************************
+            // Daily word has already been played and random words aren't allowed; disable the onscreen
+            // keyboard.
+            // **********************************************************************************************
             gameOver = true;
+            keyboardPane.setDisable(true);
             lblDailyStatus.setText("You've already played today's word!");
             lblStatus.setText("Come back again tomorrow!");
             lblDailyStatus.setVisible(true);
             lblStatus.setVisible(true);
         } else {
+            keyboardPane.setDisable(false);
             startNewWord();
         }
     }
@@ -212,13 +293,16 @@ public class GameController {
         // **********************************************************************************************
         gameplayTilePane.getChildren().clear();
         guesses.clear();
+        if (boardCanvas != null) {
+            boardCanvas.clear();
+        }
 
         // **********************************************************************************************
         // Add 6 new guesses to the game board and add them to our `guesses` list
         // **********************************************************************************************
         for (int i = 0; i < 6; i++) {
-            Guess guess = new Guess();
-            gameplayTilePane.getChildren().addAll(guess.getGameTiles());
+            Guess guess = boardCanvas != null ? new Guess(boardCanvas.getRow(0, i)) : new Guess();
+            gameplayTilePane.getChildren().addAll(guess.getTileNodes());
             guesses.add(guess);
         }
 
@@ -294,11 +378,12 @@ public class GameController {
     private void startNewWord() {
 
         // **********************************************************************************************
-        // Clear the unusedCharacters list for a new word
+        // Reset the keyboard state for a new word and drop the checkpoint of any earlier game
         // **********************************************************************************************
-        correctKeys.clear();
-        presentKeys.clear();
-        absentKeys.clear();
+        cancelHint();
+        keyboardState = KeyboardState.EMPTY;
+        CheckpointDatasource.clear();
+        gameDate = LocalDate.now();
 
         // **********************************************************************************************
         // First, get the secret word to be guessed. This will either be the daily word or a random
@@ -315,7 +400,7 @@ public class GameController {
                                            DateTimeFormatter.ofPattern("MMMM dd, yyyy")));
             lblDailyStatus.setVisible(true);
         } else {
-            secretWord = WordUtil.getRandomWord();
+            secretWord = WordUtil.getNextRotationWord();
 
             // **********************************************************************************************
             // Not the daily word, so hide the top label
@@ -324,6 +409,7 @@ public class GameController {
         }
 
         logger.log(Level.INFO, "Secret Word: " + secretWord);
+        Metrics.gameStarted();
 
         // **********************************************************************************************
         // Reset the game status variables
@@ -331,6 +417,8 @@ public class GameController {
         gameOver = false;
         currentGuessNum = 0;
         attemptMade = false;
+        revealing = false;
+        typeAhead.setLength(0);
 
         // **********************************************************************************************
         // Rebuild the game board
@@ -341,6 +429,7 @@ public class GameController {
         // Mark the first guess as active
         // **********************************************************************************************
         currentGuess = guesses.get(0);
+        prefixNodes[0] = PrefixTrie.ROOT;
 
         // **********************************************************************************************
         // Only show the cursor if the secretWord is not null (it will be null if the daily word has
@@ -352,6 +441,80 @@ public class GameController {
 
     }
 
+    /**
+     * Restores the board of an unfinished game from its checkpoint. Tiles and keys are set directly, without
+     * replaying the reveal animations.
+     *
+     * @param checkpoint The checkpoint to resume
+     */
+    private void resumeGame(Checkpoint checkpoint) {
+
+        isDailyWord = checkpoint.isDailyWord();
+        gameDate = checkpoint.getDate();
+        secretWord = WordUtil.unpackWord(checkpoint.getPackedSecret());
+
+        if (isDailyWord) {
+            lblDailyStatus.setText("Solving for " +
+                                   gameDate.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy")));
+        }
+        lblDailyStatus.setVisible(isDailyWord);
+
+        logger.log(Level.INFO, "Resuming game with " + checkpoint.getGuessCount() + " guesses made");
+
+        // **********************************************************************************************
+        // Fill in the rows that were already played
+        // **********************************************************************************************
+        for (int i = 0; i < checkpoint.getGuessCount(); i++) {
+            Guess guess = guesses.get(i);
+            int packedGuess = checkpoint.getPackedGuess(i);
+
+            for (char letter : WordUtil.unpackWord(packedGuess).toCharArray()) {
+                guess.addLetter(letter);
+            }
+            int pattern = WordUtil.scoreGuess(packedGuess, checkpoint.getPackedSecret());
+            for (int p = 0; p < WordUtil.WORD_LENGTH; p++) {
+                guess.setTileState(p, WordUtil.getTileState(pattern, p));
+            }
+        }
+
+        keyboardState = checkpoint.getKeyboardState();
+        renderKeyboard();
+
+        gameOver = false;
+        attemptMade = true;
+        revealing = false;
+        typeAhead.setLength(0);
+        currentGuessNum = checkpoint.getGuessCount() - 1;
+        currentGuess = guesses.get(currentGuessNum);
+
+        // **********************************************************************************************
+        // The app may have gone down between the last guess being saved and the game being over
+        // **********************************************************************************************
+        if (currentGuess.getGuessString().equals(secretWord)) {
+            endGame(true);
+        } else if (currentGuessNum >= 5) {
+            endGame(false);
+        } else {
+            nextGuess();
+        }
+    }
+
+    /**
+     * Writes the checkpoint for the game in progress, including the guess that was just submitted.
+     *
+     * @param revealedKeyboardState The keyboard state once the submitted guess has been revealed
+     */
+    private void saveCheckpoint(long revealedKeyboardState) {
+
+        int[] packedGuesses = new int[Checkpoint.MAX_GUESSES];
+        for (int i = 0; i <= currentGuessNum; i++) {
+            packedGuesses[i] = WordUtil.packWord(guesses.get(i).getGuessString());
+        }
+
+        CheckpointDatasource.save(new Checkpoint(profile.getId(), isDailyWord, gameDate, WordUtil.packWord(secretWord),
+                                                 packedGuesses, currentGuessNum + 1, revealedKeyboardState));
+    }
+
     private void nextGuess() {
         // **********************************************************************************************
         // If we made it here, the word was not correct, move on to the next guess or display game over
@@ -368,6 +531,7 @@ public class GameController {
         // **********************************************************************************************
         currentGuess = guesses.get(currentGuessNum);
         currentGuess.getGameTiles().get(0).setIsCursor(true);
+        prefixNodes[0] = PrefixTrie.ROOT;
 
     }
 
@@ -381,23 +545,37 @@ public class GameController {
             keyboardKey.pseudoClassStateChanged(GameTile.PRESENT, false);
             keyboardKey.pseudoClassStateChanged(GameTile.CORRECT, false);
         }
+        renderedKeyboardState = KeyboardState.EMPTY;
 
     }
 
     @FXML
     private void handleBackspace() {
 
+        if (revealing) {
+            queueTypeAhead(TYPE_AHEAD_BACKSPACE);
+            return;
+        }
+        cancelHint();
         currentGuess.removeLetter();
+        updatePrefixMatch();
 
     }
 
     @FXML
     private void handleEnter() {
 
+        if (revealing) {
+            queueTypeAhead(TYPE_AHEAD_ENTER);
+            return;
+        }
+        final long enterPressed = System.nanoTime();
+        cancelHint();
+
         // **********************************************************************************************
         // If the current guess is less than 5 letters, do not submit the guess.
         // **********************************************************************************************
-        if (currentGuess.getGuessString().length() < 5) {
+        if (currentGuess.length() < 5) {
             setStatus("Words must be 5 letters!");
             return;
         }
@@ -407,7 +585,8 @@ public class GameController {
         // feel bad for not knowing English.
         // **********************************************************************************************
         if (!WordUtil.isValidWord(currentGuess.getGuessString())) {
-            setStatus("Not in word list!");
+            setStatus(WordUtil.getNotInWordListMessage(currentGuess.getGuessString()));
+            Metrics.invalidWordRejected();
             return;
         }
 
@@ -415,11 +594,56 @@ public class GameController {
         // A valid guess has been entered, set the attemptMade flag.
         // **********************************************************************************************
         attemptMade = true;
+        revealing = true;
+        Metrics.guessSubmitted();
 
         // **********************************************************************************************
         // Get the list of TileStates for the given guess.
         // **********************************************************************************************
         TileState[] states = WordUtil.checkGuess(currentGuess.getGuessString(), secretWord);
+
+        // **********************************************************************************************
+        // Work out what the keyboard will look like once the guess is revealed, and checkpoint the game
+        // so it can be resumed if the app goes down.
+        // **********************************************************************************************
+        final long revealedKeyboardState = KeyboardState.merge(
+                keyboardState, WordUtil.getKeyboardTileStates(currentGuess.getGuessString(), secretWord));
+        saveCheckpoint(revealedKeyboardState);
+
+        // **********************************************************************************************
+        // Once the guess is revealed: update the onscreen keyboard states, then move on to the next
+        // guess or end the game.
+        // **********************************************************************************************
+        Runnable revealed = () -> {
+
+            Metrics.GUESS_REVEAL.recordSince(enterPressed);
+            keyboardState = revealedKeyboardState;
+            renderKeyboard();
+            revealing = false;
+
+            if (currentGuess.getGuessString().equalsIgnoreCase(secretWord)) {
+                endGame(true);
+            } else if (currentGuessNum < 5) {
+                nextGuess();
+                replayTypeAhead();
+            } else {
+                endGame(false);
+            }
+
+        };
+
+        // **********************************************************************************************
+        // In turbo mode, all five tiles and the keyboard change in this one pulse, with no timelines.
+        // Tiles drawn on a canvas have no nodes to flip, so they are revealed the same way.
+        // **********************************************************************************************
+        if (turbo || !currentGuess.isAnimated()) {
+            for (int i = 0; i < states.length; i++) {
+                currentGuess.setTileState(i, states[i]);
+            }
+            revealed.run();
+            return;
+        }
+
         List<SequentialTransition> outAnimations = currentGuess.getTileOutAnimations();
         List<SequentialTransition> inAnimations = currentGuess.getTileInAnimations();
 
@@ -441,22 +665,7 @@ public class GameController {
             out.play();
         }
 
-        // **********************************************************************************************
-        // Update the onscreen keyboard states after the word is revealed.
-        // **********************************************************************************************
-        inAnimations.get(4).setOnFinished(event -> {
-
-            setKeyboardTileStates(WordUtil.getKeyboardTileStates(currentGuess.getGuessString(), secretWord));
-
-            if (currentGuess.getGuessString().equalsIgnoreCase(secretWord)) {
-                endGame(true);
-            } else if (currentGuessNum < 5) {
-                nextGuess();
-            } else {
-                endGame(false);
-            }
-
-        });
+        inAnimations.get(4).setOnFinished(event -> revealed.run());
 
         outAnimations.forEach(Animation::play);
 
@@ -468,7 +677,13 @@ public class GameController {
     @FXML
     private void handleClear() {
 
+        if (revealing) {
+            queueTypeAhead(TYPE_AHEAD_CLEAR);
+            return;
+        }
+        cancelHint();
         currentGuess.clear();
+        updatePrefixMatch();
 
     }
 
@@ -531,10 +746,16 @@ public class GameController {
      */
     private void inputLetter(char letter) {
 
+        if (revealing) {
+            queueTypeAhead(letter);
+            return;
+        }
+        cancelHint();
+
         // **********************************************************************************************
         // Only allow the player to input 5 letters.
         // **********************************************************************************************
-        if (currentGuess.getGuessString().length() >= 5) {
+        if (currentGuess.length() >= 5) {
             setStatus("Words may only be 5 letters!");
             return;
         }
@@ -544,6 +765,146 @@ public class GameController {
         // **********************************************************************************************
         currentGuess.addLetter(letter);
 
+        // **********************************************************************************************
+        // Follow the new letter in the dictionary trie so the player sees right away when no word
+        // starts like this
+        // **********************************************************************************************
+        int length = currentGuess.length();
+        prefixNodes[length] = WordUtil.getPrefixTrie().step(prefixNodes[length - 1], letter);
+        updatePrefixMatch();
+
+    }
+
+    /**
+     * Holds a key pressed while a guess is being revealed. Enter is coalesced: one pressed before any other key is the
+     * submission already in flight being repeated, and one right after another adds nothing, so neither is kept.
+     *
+     * @param key A letter or one of the TYPE_AHEAD_ keys
+     */
+    private void queueTypeAhead(char key) {
+
+        int length = typeAhead.length();
+        if (key == TYPE_AHEAD_ENTER && (length == 0 || typeAhead.charAt(length - 1) == TYPE_AHEAD_ENTER)) {
+            return;
+        }
+        if (length < TYPE_AHEAD_LIMIT) {
+            typeAhead.append(key);
+        }
+    }
+
+    /**
+     * Replays the keys held during the reveal onto the row that just became active. Replay stops at a submitted guess,
+     * whose own reveal holds the keys after it, and the game ending drops whatever is left.
+     */
+    private void replayTypeAhead() {
+
+        while (typeAhead.length() > 0 && !revealing && !gameOver) {
+            char key = typeAhead.charAt(0);
+            typeAhead.deleteCharAt(0);
+            switch (key) {
+                case TYPE_AHEAD_BACKSPACE:
+                    handleBackspace();
+                    break;
+                case TYPE_AHEAD_CLEAR:
+                    handleClear();
+                    break;
+                case TYPE_AHEAD_ENTER:
+                    handleEnter();
+                    break;
+                default:
+                    inputLetter(key);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Starts looking for a good next guess for the current board. The search runs off the FX thread and reports
+     * progressively better suggestions in the status label until it finishes, the player types or submits a guess, or a
+     * new game starts.
+     */
+    @FXML
+    private void handleHint() {
+
+        if (gameOver || secretWord == null) {
+            return;
+        }
+        cancelHint();
+
+        // **********************************************************************************************
+        // Describe the board by the guesses that have been revealed so far and their patterns
+        // **********************************************************************************************
+        final int played = currentGuessNum;
+        final int[] packedGuesses = new int[played];
+        final int[] patterns = new int[played];
+        final int packedSecret = WordUtil.packWord(secretWord);
+        for (int i = 0; i < played; i++) {
+            packedGuesses[i] = WordUtil.packWord(guesses.get(i).getGuessString());
+            patterns[i] = WordUtil.scoreGuess(packedGuesses[i], packedSecret);
+        }
+
+        Task<Hint> task = new Task<>() {
+            @Override
+            protected Hint call() {
+
+                if (hintEngine == null) {
+                    hintEngine = new HintEngine(WordUtil.getDictionaryPack());
+                }
+                // updateValue only hands the latest hint to the FX thread, so a burst of improvements
+                // costs at most one label update per pulse
+                return hintEngine.findHint(packedGuesses, patterns, played, this::updateValue, this::isCancelled);
+            }
+        };
+        task.valueProperty().addListener((observable, oldHint, hint) -> {
+            if (hint != null && task == hintTask) {
+                showHint(hint);
+            }
+        });
+        task.setOnSucceeded(event -> {
+            if (task == hintTask) {
+                hintTask = null;
+            }
+        });
+        task.setOnFailed(event -> logger.log(Level.WARNING, "Hint failed", task.getException()));
+
+        hintTask = task;
+        lblStatus.setText("Thinking...");
+        lblStatus.setVisible(true);
+        hintExecutor.execute(task);
+
+    }
+
+    /**
+     * Stops the hint search in progress, if any.
+     */
+    private void cancelHint() {
+
+        if (hintTask != null) {
+            hintTask.cancel();
+            hintTask = null;
+        }
+    }
+
+    private void showHint(Hint hint) {
+
+        String text = "Try " + hint.getWord();
+        if (hint.getCandidateCount() > 1) {
+            text += String.format(" (%d words left, ~%.1f after)", hint.getCandidateCount(),
+                                  hint.getExpectedRemaining());
+        }
+        if (!hint.isComplete()) {
+            text += " ...";
+        }
+        lblStatus.setText(text);
+        lblStatus.setVisible(true);
+    }
+
+    /**
+     * Shows on the current guess whether any dictionary word still starts with the letters typed so far.
+     */
+    private void updatePrefixMatch() {
+
+        currentGuess.setPrefixMatched(prefixNodes[currentGuess.length()] != PrefixTrie.NONE);
     }
 
     private void setStatus(String message) {
@@ -552,8 +913,10 @@ public class GameController {
             lblStatus.setText(message);
 
             lblStatus.setVisible(true);
-            AnimationFX animation = new SlideInUp(lblStatus);
-            animation.play();
+            if (!turbo) {
+                AnimationFX animation = new SlideInUp(lblStatus);
+                animation.play();
+            }
         } else {
             lblStatus.setVisible(false);
         }
@@ -566,12 +929,19 @@ public class GameController {
         // Set the game over
         // **********************************************************************************************
         gameOver = true;
+        typeAhead.setLength(0);
 
         // **********************************************************************************************
         // Disable the onscreen keyboard
         // **********************************************************************************************
         keyboardPane.setDisable(true);
 
+        // **********************************************************************************************
+        // The game can no longer be resumed, and there is nothing left to hint at
+        // **********************************************************************************************
+        CheckpointDatasource.clear();
+        cancelHint();
+
         // **********************************************************************************************
         // Save the current stats
         // **********************************************************************************************
@@ -581,7 +951,9 @@ public class GameController {
         // If game ended with a correct guess, animate the final guess
         // **********************************************************************************************
         if (win) {
-            currentGuess.playWinAnimation();
+            if (!turbo && currentGuess.isAnimated()) {
+                currentGuess.playWinAnimation();
+            }
             setStatus(winMessages[currentGuessNum]);
 
         } else {
@@ -615,75 +987,33 @@ public class GameController {
 
     }
 
-    private void setKeyboardTileStates(Map<Character, TileState> letterStates) {
-
-        PseudoClass thisPseudoClass = null;
-
-        // **********************************************************************************************
-        // For each of the letterStates passed through, we need to mark the onscreen keyboards with the
-        // appropriate styles.
-        // **********************************************************************************************
-        for (Character character : letterStates.keySet()) {
-
-            Button onscreenKey = getKey(character);
-
-            if (onscreenKey == null) {
-                throw new NullPointerException("Bubba: \"Why did this happen?\"  Forrest: \"You got no key.\"");
-            }
-
-            // **********************************************************************************************
-            // Check if the key has already been marked as CORRECT; we do not change these if the
-            // new state is ABSENT because duplicate letter in a guess could have a letterState of ABSENT
-            // even though the letter IS in the word but already accounted for.
-            // **********************************************************************************************
-
-            if (!correctKeys.contains(character)) {
-                switch (letterStates.get(character)) {
-                    case CORRECT:
-                        thisPseudoClass = GameTile.CORRECT;
-                        presentKeys.remove(character);
-                        correctKeys.add(character);
-                        break;
-                    case PRESENT:
-                        thisPseudoClass = GameTile.PRESENT;
-                        presentKeys.add(character);
-                        break;
-                    case ABSENT:
-                        if (!presentKeys.contains(character)) {
-                            thisPseudoClass = GameTile.ABSENT;
-                            absentKeys.add(character);
-                        }
-                        break;
-                }
-                setKeyBoardKeyState(onscreenKey, thisPseudoClass);
-            }
+    /**
+     * Brings the onscreen keyboard styles in line with keyboardState, touching only keys whose state changed.
+     */
+    private void renderKeyboard() {
 
-        }
+        KeyboardUpdateEvent event = new KeyboardUpdateEvent();
+        event.begin();
 
-        // **********************************************************************************************
-        // Remark all unused keys
-        // **********************************************************************************************
-        for (Button onscreenKeyboardKey : onscreenKeyboardKeys) {
+        for (Button onscreenKey : onscreenKeyboardKeys) {
 
-            if (absentKeys.contains(onscreenKeyboardKey.getText().charAt(0))) {
-                onscreenKeyboardKey.pseudoClassStateChanged(GameTile.ABSENT, true);
+            char letter = onscreenKey.getText().charAt(0);
+            TileState state = KeyboardState.get(keyboardState, letter);
+            if (state != KeyboardState.get(renderedKeyboardState, letter)) {
+                setKeyBoardKeyState(onscreenKey, state);
+                event.keysUpdated++;
             }
         }
-    }
-
-    private void setKeyBoardKeyState(Button onscreenKey, PseudoClass pseudoClass) {
+        renderedKeyboardState = keyboardState;
 
-        onscreenKey.pseudoClassStateChanged(GameTile.ABSENT, false);
-        onscreenKey.pseudoClassStateChanged(GameTile.PRESENT, false);
-        onscreenKey.pseudoClassStateChanged(GameTile.CORRECT, false);
-        onscreenKey.pseudoClassStateChanged(pseudoClass, true);
+        event.commit();
     }
 
-    private Button getKey(char letter) {
+    private void setKeyBoardKeyState(Button onscreenKey, TileState state) {
 
-        return onscreenKeyboardKeys.stream()
-                                   .filter(button -> button.getText().equalsIgnoreCase(String.valueOf(letter)))
-                                   .findFirst().orElse(null);
+        onscreenKey.pseudoClassStateChanged(GameTile.ABSENT, state == TileState.ABSENT);
+        onscreenKey.pseudoClassStateChanged(GameTile.PRESENT, state == TileState.PRESENT);
+        onscreenKey.pseudoClassStateChanged(GameTile.CORRECT, state == TileState.CORRECT);
     }
 
     /**
@@ -708,67 +1038,84 @@ public class GameController {
         return result.isPresent() && result.get() == ButtonType.YES;
     }
 
-    private void saveStats(boolean win) {
+    /**
+     * Opens the player list, and switches to the profile the player picks.
+     */
+    @FXML
+    private void handleProfile() {
 
-        boolean dailyAttempted = isDailyWord && attemptMade;
-        boolean genAttempted = !isDailyWord && attemptMade;
+        ProfileController controller = new ProfileController(profile.getId());
+        try {
+            Stage stage = new Stage();
 
-        // **********************************************************************************************
-        // If the last word was the daily word and at least one attempt to guess it has been made,
-        // we record the stats and win/loss status. This prevents users from avoiding a loss by just
-        // closing the game prior to game over.
-        // **********************************************************************************************
-        if (dailyAttempted) {
-            stats.setLastCompletedDailyWord(LocalDate.now());
-            stats.setDailyGamesPlayed(stats.getDailyGamesPlayed() + 1);
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/ProfileLayout.fxml"));
+            loader.setController(controller);
 
-            if (win) {
-                stats.setDailyWins(stats.getDailyWins() + 1);
-                stats.setDailyCurrentStreak(stats.getDailyCurrentStreak() + 1);
-            } else {
-                stats.setDailyLosses(stats.getDailyLosses() + 1);
-                stats.setDailyCurrentStreak(0);
-            }
-        } else if (genAttempted) {
-            // **********************************************************************************************
-            // The current word is a general word and at least one attempt was made to solve it. Save the
-            // stats.
-            // **********************************************************************************************
-            stats.setGenGamesPlayed(stats.getGenGamesPlayed() + 1);
+            Scene scene = new Scene(loadPopup(loader));
 
-            if (win) {
-                stats.setGenWins(stats.getGenWins() + 1);
-                stats.setGenCurrentStreak(stats.getGenCurrentStreak() + 1);
-            } else {
-                stats.setGenLosses(stats.getGenLosses() + 1);
-                stats.setGenCurrentStreak(0);
-            }
+            stage.initStyle(StageStyle.UNDECORATED);
+            stage.initModality(Modality.APPLICATION_MODAL);
+            stage.initOwner(lblStatus.getScene().getWindow());
+            stage.setScene(scene);
+            showPopupStage(stage);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
         }
 
+        Profile selected = controller.getSelectedProfile();
+        if (selected != null && selected.getId() != profile.getId()) {
+            switchProfile(selected);
+        }
+
+    }
+
+    /**
+     * Switches play to another profile. A word in progress is forfeited and counted against the current player.
+     *
+     * @param selected The profile to play as
+     */
+    private void switchProfile(Profile selected) {
+
         // **********************************************************************************************
-        // Increase the guesses in Stats if the word was guessed
+        // Leaving a word after guessing counts as a loss, exactly as starting a new word does
         // **********************************************************************************************
-        if (win) {
-            switch (currentGuessNum) {
-                case 0:
-                    stats.setGuessCount1(stats.getGuessCount1() + 1);
-                    break;
-                case 1:
-                    stats.setGuessCount2(stats.getGuessCount2() + 1);
-                    break;
-                case 2:
-                    stats.setGuessCount3(stats.getGuessCount3() + 1);
-                    break;
-                case 3:
-                    stats.setGuessCount4(stats.getGuessCount4() + 1);
-                    break;
-                case 4:
-                    stats.setGuessCount5(stats.getGuessCount5() + 1);
-                    break;
-                case 5:
-                    stats.setGuessCount6(stats.getGuessCount6() + 1);
-                    break;
+        if (!gameOver && attemptMade) {
+            if (!getForfeitConfirmation()) {
+                return;
             }
+            saveStats(false);
+        }
+        cancelHint();
+        CheckpointDatasource.clear();
+
+        // **********************************************************************************************
+        // Load the new player's stats and start their session from scratch
+        // **********************************************************************************************
+        profile = selected;
+        StatsDatasource.setActiveProfile(profile.getId());
+        stats = StatsDatasource.loadStats(profile.getId());
+        btnProfile.setText(profile.getName());
+        updateDailyWordAvailability();
+        logger.log(Level.INFO, "Switched to profile " + profile.getName());
+
+        clearKeyBoardStates();
+        keyboardState = KeyboardState.EMPTY;
+        lblDailyStatus.setVisible(false);
+        lblStatus.setVisible(false);
+        initGameBoard();
+        beginSession();
+
+    }
+
+    private void saveStats(boolean win) {
+
+        // **********************************************************************************************
+        // Once at least one attempt has been made, we record the stats and win/loss status. This
+        // prevents users from avoiding a loss by just starting over prior to game over.
+        // **********************************************************************************************
+        if (attemptMade) {
+            stats.recordGame(isDailyWord, win, currentGuessNum + 1, LocalDate.now());
         }
 
         StatsDatasource.writeStatsFile(stats);
@@ -778,22 +1125,15 @@ public class GameController {
     private void initGameExit() {
 
         // **********************************************************************************************
-        // When exiting the game, warn of a loss counted if the player started playing the current word
-        // but hasn't reached game over yet.
+        // A word in progress is no longer forfeited on exit: its checkpoint is already saved and the game
+        // resumes from it on the next launch (a daily word only on the same day). The checkpoint is
+        // forced to disk here, since the background flush would not outlive the exit.
         // **********************************************************************************************
         thisScene.getWindow().setOnCloseRequest(event -> {
-
-            if (!gameOver && attemptMade) {
-                if (!getForfeitConfirmation()) {
-                    event.consume();
-                    return;
-                }
-                saveStats(false);
-            }
-
+            CheckpointDatasource.flush();
             Platform.exit();
-
         });
+
     }
 
     private void showEndGameScreen(boolean win) {
@@ -809,7 +1149,7 @@ public class GameController {
                     currentGuessNum
             ));
 
-            Scene scene = new Scene(loader.load());
+            Scene scene = new Scene(loadPopup(loader));
 
             stage.initStyle(StageStyle.UNDECORATED);
             stage.initModality(Modality.APPLICATION_MODAL);
@@ -831,7 +1171,7 @@ public class GameController {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/HelpLayout.fxml"));
             loader.setController(new HelpController());
 
-            Scene scene = new Scene(loader.load());
+            Scene scene = new Scene(loadPopup(loader));
 
             stage.initStyle(StageStyle.UNDECORATED);
             stage.initModality(Modality.APPLICATION_MODAL);
@@ -844,6 +1184,22 @@ public class GameController {
 
     }
 
+    /**
+     * Loads the layout of a popup window, recording the load as a JFR event.
+     */
+    private Parent loadPopup(FXMLLoader loader) throws IOException {
+
+        PopupLoadEvent event = new PopupLoadEvent();
+        event.begin();
+        Parent root = loader.load();
+
+        String path = loader.getLocation().getPath();
+        event.layout = path.substring(path.lastIndexOf('/') + 1);
+        event.commit();
+
+        return root;
+    }
+
     private void showPopupStage(final Stage childStage) {
 
         childStage.setX(stageX.get() + gameStage.getWidth() / 2 - childStage.getWidth() / 2);
@@ -871,7 +1227,7 @@ public class GameController {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/StatsLayout.fxml"));
             loader.setController(new StatsController(stats));
 
-            Scene scene = new Scene(loader.load());
+            Scene scene = new Scene(loadPopup(loader));
 
             stage.initStyle(StageStyle.UNDECORATED);
             stage.initModality(Modality.APPLICATION_MODAL);
@@ -0,0 +1,485 @@
+package controller;
+
+import animatefx.animation.AnimationFX;
+import animatefx.animation.SlideInUp;
+import controls.BoardCanvas;
+import controls.GameTile;
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.TilePane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import metrics.Metrics;
+import model.Guess;
+import util.WordUtil;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Controller for the multi-board variant: the player solves several secret words at once and every guess is applied
+ * to all boards that are still unsolved. Guesses are scored against all open secrets in one batch call, and only the
+ * boards that are still in play are touched when a guess is typed or revealed. Multi-board games are not recorded in
+ * the player statistics.
+ */
+public class MultiBoardController {
+
+    private static final PseudoClass SOLVED = PseudoClass.getPseudoClass("solved");
+
+    /** Number of boards (and secret words) in each game **/
+    private final int boardCount;
+
+    /** Number of guesses allowed; one per board plus the five spare guesses of the normal game **/
+    private final int maxGuesses;
+
+    /** The rows of each board; boards.get(b).get(g) is guess g on board b **/
+    private final List<List<Guess>> boards = new ArrayList<>();
+
+    /** The pane of each board, styled once the board is solved **/
+    private final List<TilePane> boardPanes = new ArrayList<>();
+
+    /** All boards drawn on one canvas instead of the board panes, if the canvas renderer was chosen **/
+    private final boolean canvasBoard;
+    private BoardCanvas boardCanvas;
+
+    /** The secret word of each board **/
+    private final String[] secretWords;
+
+    /**
+     * Packed secrets of the boards still in play, in the same order as openBoards. Solved boards are swapped out of
+     * the first openCount entries so the batch scorer only sees boards that need scoring.
+     **/
+    private final int[] openSecrets;
+    private final int[] openBoards;
+    private int openCount;
+
+    /** Pattern codes returned by the batch scorer, one per open board **/
+    private final int[] patterns;
+
+    /** Letters that have been guessed, and the letters still present in any unsolved secret (bit 0 = A) **/
+    private int guessedLetters;
+    private int openSecretLetters;
+
+    /** Letters typed into the current row **/
+    private final StringBuilder currentRow = new StringBuilder(WordUtil.WORD_LENGTH);
+
+    /** The current guess # (zero-based) **/
+    private int currentGuessNum;
+
+    /** Is the current game over or still accepting guesses? **/
+    private boolean gameOver;
+
+    private final Stage gameStage;
+    private Scene thisScene;
+
+    // **********************************************************************************************
+    // FXML elements
+    // **********************************************************************************************
+    @FXML
+    private Button btnHelp, btnNew;
+    @FXML
+    private Label lblBoardStatus;
+    @FXML
+    private FlowPane boardsPane;
+    @FXML
+    private Label lblStatus;
+    @FXML
+    private VBox keyboardPane;
+    @FXML
+    private Button keyQ, keyW, keyE, keyR, keyT, keyY, keyU, keyI, keyO, keyP,
+            keyA, keyS, keyD, keyF, keyG, keyH, keyJ, keyK, keyL,
+            keyZ, keyX, keyC, keyV, keyB, keyN, keyM;
+    private List<Button> onscreenKeyboardKeys;
+
+    /**
+     * Constructor for the multi-board game.
+     *
+     * @param boardCount  Number of boards to solve at once
+     * @param canvasBoard Draw all boards on a single canvas rather than with a node per tile?
+     */
+    public MultiBoardController(int boardCount, boolean canvasBoard, Stage primaryStage) {
+
+        this.boardCount = boardCount;
+        this.canvasBoard = canvasBoard;
+        this.maxGuesses = boardCount + 5;
+        this.gameStage = primaryStage;
+
+        this.secretWords = new String[boardCount];
+        this.openSecrets = new int[boardCount];
+        this.openBoards = new int[boardCount];
+        this.patterns = new int[boardCount];
+
+        GameController.logger.log(Level.INFO, "Initializing " + boardCount + " boards ...");
+    }
+
+    @FXML
+    private void initialize() {
+
+        lblStatus.setVisible(false);
+
+        onscreenKeyboardKeys = Arrays.asList(keyQ, keyW, keyE, keyR, keyT, keyY, keyU, keyI, keyO, keyP,
+                                             keyA, keyS, keyD, keyF, keyG, keyH, keyJ, keyK, keyL,
+                                             keyZ, keyX, keyC, keyV, keyB, keyN, keyM);
+
+        Platform.runLater(() -> {
+            thisScene = btnHelp.getScene();
+            initPhysicalKeyboard();
+        });
+
+        startNewGame();
+    }
+
+    /**
+     * Build an empty set of boards.
+     */
+    private void initBoards() {
+
+        boardsPane.getChildren().clear();
+        boards.clear();
+        boardPanes.clear();
+
+        // **********************************************************************************************
+        // The canvas is built once and only blanked for later games
+        // **********************************************************************************************
+        if (canvasBoard) {
+            if (boardCanvas == null) {
+                boardCanvas = BoardCanvas.createSmall(boardCount, maxGuesses, boardsPane.getPrefWrapLength());
+            }
+            boardCanvas.clear();
+            boardsPane.getChildren().add(boardCanvas);
+
+            for (int b = 0; b < boardCount; b++) {
+                List<Guess> rows = new ArrayList<>(maxGuesses);
+                for (int g = 0; g < maxGuesses; g++) {
+                    rows.add(new Guess(boardCanvas.getRow(b, g)));
+                }
+                boards.add(rows);
+            }
+            return;
+        }
+
+        for (int b = 0; b < boardCount; b++) {
+
+            TilePane boardPane = new TilePane();
+            boardPane.getStyleClass().add("small-board");
+            boardPane.setPrefColumns(WordUtil.WORD_LENGTH);
+
+            List<Guess> rows = new ArrayList<>(maxGuesses);
+            for (int g = 0; g < maxGuesses; g++) {
+                Guess guess = new Guess();
+                boardPane.getChildren().addAll(guess.getTileNodes());
+                rows.add(guess);
+            }
+
+            boards.add(rows);
+            boardPanes.add(boardPane);
+            boardsPane.getChildren().add(boardPane);
+        }
+    }
+
+    private void initPhysicalKeyboard() {
+
+        thisScene.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+
+            if (gameOver) {
+                if (event.getCode() == KeyCode.ENTER) {
+                    handleNew();
+                }
+                return;
+            }
+            lblStatus.setVisible(false);
+
+            if (event.getCode() == KeyCode.BACK_SPACE) {
+                handleBackspace();
+                return;
+            } else if (event.getCode() == KeyCode.ENTER) {
+                handleEnter();
+                return;
+            } else if (event.getCode() == KeyCode.ESCAPE) {
+                handleClear();
+                return;
+            }
+            if (event.getText() == null || event.getText().isEmpty()) {
+                return;
+            }
+
+            final char inputCharacter = event.getText().toUpperCase().charAt(0);
+            if (inputCharacter >= 'A' && inputCharacter <= 'Z') {
+                inputLetter(inputCharacter);
+            }
+        });
+    }
+
+    /**
+     * Pick a new, distinct secret word for every board and reset the game.
+     */
+    private void startNewGame() {
+
+        Set<String> chosen = new HashSet<>();
+        for (int b = 0; b < boardCount; b++) {
+            String secret;
+            do {
+                secret = WordUtil.getRandomWord();
+            } while (!chosen.add(secret));
+
+            secretWords[b] = secret;
+            openSecrets[b] = WordUtil.packWord(secret);
+            openBoards[b] = b;
+        }
+        openCount = boardCount;
+        openSecretLetters = lettersOf(openSecrets, openCount);
+        guessedLetters = 0;
+
+        GameController.logger.log(Level.INFO, "Secret Words: " + String.join(", ", secretWords));
+        Metrics.gameStarted();
+
+        gameOver = false;
+        currentGuessNum = 0;
+        currentRow.setLength(0);
+
+        initBoards();
+        for (Button key : onscreenKeyboardKeys) {
+            key.pseudoClassStateChanged(GameTile.ABSENT, false);
+        }
+        keyboardPane.setDisable(false);
+        updateBoardStatus();
+        setCursors();
+    }
+
+    @FXML
+    private void handleNew() {
+
+        lblStatus.setVisible(false);
+        startNewGame();
+    }
+
+    @FXML
+    private void handleOnscreenKeyboardPress(ActionEvent event) {
+
+        lblStatus.setVisible(false);
+
+        String keyPressed = ((Button) event.getSource()).getText();
+        if (keyPressed.length() == 1) {
+            inputLetter(keyPressed.charAt(0));
+        }
+    }
+
+    private void inputLetter(char letter) {
+
+        if (currentRow.length() >= WordUtil.WORD_LENGTH) {
+            setStatus("Words may only be 5 letters!");
+            return;
+        }
+        currentRow.append(letter);
+
+        for (int i = 0; i < openCount; i++) {
+            boards.get(openBoards[i]).get(currentGuessNum).addLetter(letter);
+        }
+    }
+
+    @FXML
+    private void handleBackspace() {
+
+        if (currentRow.length() == 0) {
+            return;
+        }
+        currentRow.setLength(currentRow.length() - 1);
+
+        for (int i = 0; i < openCount; i++) {
+            boards.get(openBoards[i]).get(currentGuessNum).removeLetter();
+        }
+    }
+
+    @FXML
+    private void handleClear() {
+
+        currentRow.setLength(0);
+
+        for (int i = 0; i < openCount; i++) {
+            boards.get(openBoards[i]).get(currentGuessNum).clear();
+        }
+    }
+
+    @FXML
+    private void handleEnter() {
+
+        if (gameOver) {
+            return;
+        }
+
+        final long enterPressed = System.nanoTime();
+
+        if (currentRow.length() < WordUtil.WORD_LENGTH) {
+            setStatus("Words must be 5 letters!");
+            return;
+        }
+
+        String guessString = currentRow.toString();
+        if (!WordUtil.isValidWord(guessString)) {
+            setStatus(WordUtil.getNotInWordListMessage(guessString));
+            Metrics.invalidWordRejected();
+            return;
+        }
+        Metrics.guessSubmitted();
+
+        // **********************************************************************************************
+        // Score the guess against every open board in one pass
+        // **********************************************************************************************
+        int packedGuess = WordUtil.packWord(guessString);
+        WordUtil.scoreGuess(packedGuess, openSecrets, openCount, patterns);
+        guessedLetters |= lettersOf(packedGuess);
+
+        // **********************************************************************************************
+        // Reveal the row on each open board, then drop the boards this guess solved from the open set.
+        // Iterating backwards lets a solved board be swapped with the last open one in place.
+        // **********************************************************************************************
+        for (int i = openCount - 1; i >= 0; i--) {
+
+            int board = openBoards[i];
+            Guess row = boards.get(board).get(currentGuessNum);
+            for (int p = 0; p < WordUtil.WORD_LENGTH; p++) {
+                row.setTileState(p, WordUtil.getTileState(patterns[i], p));
+            }
+
+            if (patterns[i] == WordUtil.ALL_CORRECT) {
+                if (boardCanvas != null) {
+                    boardCanvas.setBoardDimmed(board, true);
+                } else {
+                    boardPanes.get(board).pseudoClassStateChanged(SOLVED, true);
+                }
+
+                openCount--;
+                openSecrets[i] = openSecrets[openCount];
+                openBoards[i] = openBoards[openCount];
+                patterns[i] = patterns[openCount];
+            }
+        }
+        openSecretLetters = lettersOf(openSecrets, openCount);
+        updateKeyboard();
+        updateBoardStatus();
+
+        currentGuessNum++;
+        currentRow.setLength(0);
+
+        if (openCount == 0) {
+            endGame(true);
+        } else if (currentGuessNum >= maxGuesses) {
+            endGame(false);
+        } else {
+            setCursors();
+        }
+
+        Metrics.GUESS_REVEAL.recordSince(enterPressed);
+    }
+
+    /**
+     * Dim every guessed letter that no unsolved secret contains.
+     */
+    private void updateKeyboard() {
+
+        int absentLetters = guessedLetters & ~openSecretLetters;
+        for (Button key : onscreenKeyboardKeys) {
+            int letter = key.getText().charAt(0) - 'A';
+            key.pseudoClassStateChanged(GameTile.ABSENT, (absentLetters & (1 << letter)) != 0);
+        }
+    }
+
+    private void updateBoardStatus() {
+
+        lblBoardStatus.setText((boardCount - openCount) + " of " + boardCount + " solved   -   guess "
+                               + Math.min(currentGuessNum + 1, maxGuesses) + " of " + maxGuesses);
+    }
+
+    /**
+     * Show the cursor on the first tile of the current row of every open board.
+     */
+    private void setCursors() {
+
+        for (int i = 0; i < openCount; i++) {
+            boards.get(openBoards[i]).get(currentGuessNum).getGameTiles().get(0).setIsCursor(true);
+        }
+    }
+
+    private void endGame(boolean win) {
+
+        gameOver = true;
+        keyboardPane.setDisable(true);
+
+        if (win) {
+            setStatus("ALL " + boardCount + " SOLVED!");
+        } else {
+            StringBuilder missed = new StringBuilder();
+            for (int i = 0; i < openCount; i++) {
+                missed.append(missed.length() == 0 ? "" : ", ").append(secretWords[openBoards[i]]);
+            }
+            setStatus("OH NO! MISSED: " + missed);
+        }
+    }
+
+    private void setStatus(String message) {
+
+        lblStatus.setText(message);
+        lblStatus.setVisible(true);
+        AnimationFX animation = new SlideInUp(lblStatus);
+        animation.play();
+    }
+
+    /**
+     * @return A bitmask of the letters in the first count packed words (bit 0 = A)
+     */
+    private static int lettersOf(int[] packedWords, int count) {
+
+        int letters = 0;
+        for (int i = 0; i < count; i++) {
+            letters |= lettersOf(packedWords[i]);
+        }
+        return letters;
+    }
+
+    /**
+     * @return A bitmask of the letters in the packed word (bit 0 = A)
+     */
+    private static int lettersOf(int packedWord) {
+
+        int letters = 0;
+        for (int p = 0; p < WordUtil.WORD_LENGTH; p++) {
+            letters |= 1 << ((packedWord >>> (5 * p)) & 31);
+        }
+        return letters;
+    }
+
+    @FXML
+    private void showHelp() {
+
+        try {
+            Stage stage = new Stage();
+
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/HelpLayout.fxml"));
+            loader.setController(new HelpController());
+
+            Scene scene = new Scene(loader.load());
+
+            stage.initStyle(StageStyle.UNDECORATED);
+            stage.initModality(Modality.APPLICATION_MODAL);
+            stage.initOwner(gameStage);
+            stage.setScene(scene);
+            stage.showAndWait();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+}
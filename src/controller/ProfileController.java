@@ -0,0 +1,123 @@
+package controller;
+
+import datasource.StatsDatasource;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.MouseButton;
+import model.Profile;
+
+/**
+ * Popup for picking the player whose stats the game records, and for adding and removing players.
+ */
+public class ProfileController {
+
+    @FXML
+    private ListView<Profile> lstProfiles;
+    @FXML
+    private TextField txtName;
+    @FXML
+    private Label lblError;
+    @FXML
+    private Button btnDelete, btnPlay, btnClose;
+
+    /** The profile being played when the popup was opened **/
+    private final long activeProfileId;
+
+    /** The profile the player chose to play, or null if the popup was closed without choosing **/
+    private Profile selectedProfile;
+
+    public ProfileController(long activeProfileId) {
+
+        this.activeProfileId = activeProfileId;
+    }
+
+    @FXML
+    private void initialize() {
+
+        lstProfiles.getItems().setAll(StatsDatasource.getProfiles());
+        for (Profile profile : lstProfiles.getItems()) {
+            if (profile.getId() == activeProfileId) {
+                lstProfiles.getSelectionModel().select(profile);
+            }
+        }
+
+        // **********************************************************************************************
+        // The profile being played cannot be deleted, and a profile must be selected to play it
+        // **********************************************************************************************
+        lstProfiles.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, profile) -> {
+            btnDelete.setDisable(profile == null || profile.getId() == activeProfileId);
+            btnPlay.setDisable(profile == null);
+        });
+        btnDelete.setDisable(true);
+        btnPlay.setDisable(lstProfiles.getSelectionModel().getSelectedItem() == null);
+
+        lstProfiles.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                handlePlay();
+            }
+        });
+
+    }
+
+    /**
+     * @return The profile the player chose to play, or null if none was chosen
+     */
+    public Profile getSelectedProfile() {
+
+        return selectedProfile;
+    }
+
+    @FXML
+    private void handleAdd() {
+
+        try {
+            Profile profile = StatsDatasource.createProfile(txtName.getText());
+            lstProfiles.getItems().setAll(StatsDatasource.getProfiles());
+            for (Profile listed : lstProfiles.getItems()) {
+                if (listed.getId() == profile.getId()) {
+                    lstProfiles.getSelectionModel().select(listed);
+                }
+            }
+            txtName.clear();
+            lblError.setVisible(false);
+        } catch (IllegalArgumentException e) {
+            lblError.setText(e.getMessage());
+            lblError.setVisible(true);
+        }
+
+    }
+
+    @FXML
+    private void handleDelete() {
+
+        Profile profile = lstProfiles.getSelectionModel().getSelectedItem();
+        if (profile == null || profile.getId() == activeProfileId) {
+            return;
+        }
+
+        StatsDatasource.deleteProfile(profile.getId());
+        lstProfiles.getItems().remove(profile);
+
+    }
+
+    @FXML
+    private void handlePlay() {
+
+        selectedProfile = lstProfiles.getSelectionModel().getSelectedItem();
+        if (selectedProfile != null) {
+            handleClose();
+        }
+
+    }
+
+    @FXML
+    private void handleClose() {
+
+        btnClose.getScene().getWindow().hide();
+
+    }
+
+}
@@ -0,0 +1,309 @@
+package controls;
+
+import javafx.application.Platform;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import model.TileState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws one or more game boards on a single canvas, as an alternative to a {@link GameTile} node per tile. The tiles
+ * are plain objects; a change marks just that tile dirty, and the dirty tiles are redrawn together once the current
+ * event has been handled. Letters are drawn from glyph images rendered once per font size.
+ * <p>
+ * The colours are those of the game tiles in styles.css.
+ */
+public class BoardCanvas extends Canvas {
+
+    private static final int COLUMNS = 5;
+
+    // **********************************************************************************************
+    // Colours from styles.css (.game-tile and its pseudo-classes)
+    // **********************************************************************************************
+    private static final Color BACKGROUND_TOP = Color.web("#34495e");
+    private static final Color BORDER = Color.web("#22313f");
+    private static final Color CURSOR_BORDER = Color.web("#e4f1fe");
+    private static final Color NO_MATCH_BORDER = Color.web("#e74c3c");
+    private static final Color LETTER = Color.web("#e4f1fe");
+    private static final Map<TileState, Paint> BACKGROUNDS = new EnumMap<>(TileState.class);
+
+    static {
+        BACKGROUNDS.put(TileState.BLANK, gradient("#22313f"));
+        BACKGROUNDS.put(TileState.CORRECT, gradient("#66ba45"));
+        BACKGROUNDS.put(TileState.PRESENT, gradient("#c6c25e"));
+        BACKGROUNDS.put(TileState.ABSENT, gradient("#121c23"));
+    }
+
+    /** Opacity of a solved board in the multi-board variant (.small-board:solved) **/
+    private static final double DIMMED_OPACITY = 0.5;
+
+    /** Letter images A-Z, per font size; rendered on first use **/
+    private static final Map<Double, Image[]> glyphCache = new HashMap<>();
+
+    private final int rows;
+    private final int boardsPerLine;
+    private final double tileSize;
+    private final double gap;
+    private final double boardGap;
+    private final double borderWidth;
+    private final double fontSize;
+
+    private final List<CanvasTile> tiles = new ArrayList<>();
+    private final boolean[] dimmedBoards;
+    private final BitSet dirty = new BitSet();
+    private boolean redrawScheduled;
+
+    /**
+     * @return A canvas for the board of the normal game, sized like the GameTile board
+     */
+    public static BoardCanvas createLarge(int rows) {
+
+        return new BoardCanvas(1, 1, rows, 56, 5, 0, 2, 36);
+    }
+
+    /**
+     * @param boardCount Number of boards
+     * @param rows       Number of rows on each board
+     * @param wrapWidth  The width after which boards wrap to the next line
+     * @return A canvas for the boards of the multi-board variant, sized like the .small-board tiles
+     */
+    public static BoardCanvas createSmall(int boardCount, int rows, double wrapWidth) {
+
+        double boardWidth = COLUMNS * 28 + (COLUMNS - 1) * 3;
+        int boardsPerLine = (int) Math.max(1, Math.min(boardCount, (wrapWidth + 15) / (boardWidth + 15)));
+        return new BoardCanvas(boardCount, boardsPerLine, rows, 28, 3, 15, 1, 16);
+    }
+
+    private BoardCanvas(int boardCount, int boardsPerLine, int rows, double tileSize, double gap, double boardGap,
+                        double borderWidth, double fontSize) {
+
+        this.rows = rows;
+        this.boardsPerLine = boardsPerLine;
+        this.tileSize = tileSize;
+        this.gap = gap;
+        this.boardGap = boardGap;
+        this.borderWidth = borderWidth;
+        this.fontSize = fontSize;
+        this.dimmedBoards = new boolean[boardCount];
+
+        int lines = (boardCount + boardsPerLine - 1) / boardsPerLine;
+        setWidth(boardsPerLine * boardWidth() + (boardsPerLine - 1) * boardGap);
+        setHeight(lines * boardHeight() + (lines - 1) * boardGap);
+
+        for (int i = 0; i < boardCount * rows * COLUMNS; i++) {
+            tiles.add(new CanvasTile(i));
+        }
+        dirty.set(0, tiles.size());
+        scheduleRedraw();
+    }
+
+    /**
+     * @param board The board, from 0
+     * @param row   The row on that board, from 0
+     * @return The tiles of the row, left to right
+     */
+    public List<Tile> getRow(int board, int row) {
+
+        int first = (board * rows + row) * COLUMNS;
+        return new ArrayList<>(tiles.subList(first, first + COLUMNS));
+    }
+
+    /**
+     * Blanks every tile and undims every board, for a new game.
+     */
+    public void clear() {
+
+        for (CanvasTile tile : tiles) {
+            tile.letter = 0;
+            tile.state = TileState.BLANK;
+            tile.cursor = false;
+            tile.noMatch = false;
+        }
+        Arrays.fill(dimmedBoards, false);
+        markDirty(0, tiles.size());
+    }
+
+    /**
+     * Shows a board faded out, as a solved board is in the multi-board variant.
+     */
+    public void setBoardDimmed(int board, boolean dimmed) {
+
+        if (dimmedBoards[board] != dimmed) {
+            dimmedBoards[board] = dimmed;
+            int first = board * rows * COLUMNS;
+            markDirty(first, first + rows * COLUMNS);
+        }
+    }
+
+    private void markDirty(int from, int to) {
+
+        dirty.set(from, to);
+        scheduleRedraw();
+    }
+
+    /**
+     * Redraws once the current event has been handled, so that the several changes a keystroke makes to a tile are
+     * drawn once.
+     */
+    private void scheduleRedraw() {
+
+        if (!redrawScheduled) {
+            redrawScheduled = true;
+            Platform.runLater(this::redraw);
+        }
+    }
+
+    private void redraw() {
+
+        redrawScheduled = false;
+        GraphicsContext gc = getGraphicsContext2D();
+        Image[] glyphs = getGlyphs(fontSize);
+
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            CanvasTile tile = tiles.get(i);
+            int board = i / (rows * COLUMNS);
+            int row = i / COLUMNS % rows;
+            int column = i % COLUMNS;
+            double x = board % boardsPerLine * (boardWidth() + boardGap) + column * (tileSize + gap);
+            double y = board / boardsPerLine * (boardHeight() + boardGap) + row * (tileSize + gap);
+
+            gc.clearRect(x, y, tileSize, tileSize);
+            gc.setGlobalAlpha(dimmedBoards[board] ? DIMMED_OPACITY : 1.0);
+
+            gc.setFill(BACKGROUNDS.get(tile.state));
+            gc.fillRect(x, y, tileSize, tileSize);
+
+            // **********************************************************************************************
+            // The border sits inside the tile, like a CSS border; no-match wins over the cursor
+            // **********************************************************************************************
+            gc.setStroke(tile.noMatch ? NO_MATCH_BORDER : tile.cursor ? CURSOR_BORDER : BORDER);
+            gc.setLineWidth(borderWidth);
+            gc.strokeRect(x + borderWidth / 2, y + borderWidth / 2, tileSize - borderWidth, tileSize - borderWidth);
+
+            if (tile.letter >= 'A' && tile.letter <= 'Z') {
+                Image glyph = glyphs[tile.letter - 'A'];
+                gc.drawImage(glyph, x + Math.round((tileSize - glyph.getWidth()) / 2),
+                             y + Math.round((tileSize - glyph.getHeight()) / 2));
+            }
+        }
+        gc.setGlobalAlpha(1.0);
+        dirty.clear();
+    }
+
+    private double boardWidth() {
+
+        return COLUMNS * tileSize + (COLUMNS - 1) * gap;
+    }
+
+    private double boardHeight() {
+
+        return rows * tileSize + (rows - 1) * gap;
+    }
+
+    private static Image[] getGlyphs(double fontSize) {
+
+        return glyphCache.computeIfAbsent(fontSize, size -> {
+            Font font = Font.font("Calibri", FontWeight.BOLD, size);
+            SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.TRANSPARENT);
+
+            Image[] glyphs = new Image[26];
+            for (int i = 0; i < glyphs.length; i++) {
+                Text text = new Text(String.valueOf((char) ('A' + i)));
+                text.setFont(font);
+                text.setFill(LETTER);
+                glyphs[i] = text.snapshot(parameters, null);
+            }
+            return glyphs;
+        });
+    }
+
+    /**
+     * @return The tile background: the state colour at the bottom fading to the board colour at the top
+     */
+    private static Paint gradient(String bottom) {
+
+        return new LinearGradient(0, 1, 0, 0, true, CycleMethod.NO_CYCLE,
+                                  new Stop(0, Color.web(bottom)), new Stop(1, BACKGROUND_TOP));
+    }
+
+    /**
+     * A tile on the canvas. Setting a value it already has does not redraw it.
+     */
+    private class CanvasTile implements Tile {
+
+        private final int index;
+        private char letter;
+        private TileState state = TileState.BLANK;
+        private boolean cursor;
+        private boolean noMatch;
+
+        private CanvasTile(int index) {
+
+            this.index = index;
+        }
+
+        @Override
+        public void setLetter(String letter) {
+
+            char next = letter == null || letter.isEmpty() ? 0 : letter.charAt(0);
+            if (this.letter != next) {
+                this.letter = next;
+                markDirty(index, index + 1);
+            }
+        }
+
+        @Override
+        public void setIsCursor(boolean isCursor) {
+
+            if (cursor != isCursor) {
+                cursor = isCursor;
+                markDirty(index, index + 1);
+            }
+        }
+
+        @Override
+        public void setNoMatch(boolean noMatch) {
+
+            if (this.noMatch != noMatch) {
+                this.noMatch = noMatch;
+                markDirty(index, index + 1);
+            }
+        }
+
+        @Override
+        public void setTileState(TileState tileState) {
+
+            TileState next = tileState == null ? TileState.BLANK : tileState;
+            if (state != next) {
+                state = next;
+                markDirty(index, index + 1);
+            }
+        }
+
+        @Override
+        public TileState getTileState() {
+
+            return state;
+        }
+
+    }
+
+}
@@ -13,7 +13,7 @@ import model.TileState;
  * A custom HBox pane that provides the visual and functional implementation of an individual letter tile for the game
  * board.
  */
-public class GameTile extends HBox {
+public class GameTile extends HBox implements Tile {
 
     // **********************************************************************************************
     // PseudoClasses for the game tile; used to control the visual representation in game
@@ -22,6 +22,7 @@ public class GameTile extends HBox {
     public static final PseudoClass CORRECT = PseudoClass.getPseudoClass("correct");
     public static final PseudoClass ABSENT = PseudoClass.getPseudoClass("absent");
     public static final PseudoClass CURSOR = PseudoClass.getPseudoClass("cursor");
+    public static final PseudoClass NO_MATCH = PseudoClass.getPseudoClass("no-match");
 
     // **********************************************************************************************
     // The Label to hold the letter for this tile
@@ -103,21 +104,31 @@ public class GameTile extends HBox {
 
     }
 
+    @Override
     public void setIsCursor(boolean isCursor) {
 
         this.isCursor.set(isCursor);
     }
 
+    @Override
+    public void setNoMatch(boolean noMatch) {
+
+        this.pseudoClassStateChanged(NO_MATCH, noMatch);
+    }
+
+    @Override
     public void setLetter(String letter) {
 
         this.lblLetter.setText(letter);
     }
 
+    @Override
     public void setTileState(TileState tileState) {
 
         this.tileState.set(tileState);
     }
 
+    @Override
     public TileState getTileState() {
 
         return tileState.get();
@@ -0,0 +1,24 @@
+package controls;
+
+import model.TileState;
+
+/**
+ * A letter tile of the game board, as a {@link model.Guess} sees it. Implemented by the {@link GameTile} node and by
+ * the tiles drawn on a {@link BoardCanvas}.
+ */
+public interface Tile {
+
+    void setLetter(String letter);
+
+    void setIsCursor(boolean isCursor);
+
+    /**
+     * Flags this tile to show that no dictionary word starts with the letters typed so far.
+     */
+    void setNoMatch(boolean noMatch);
+
+    void setTileState(TileState tileState);
+
+    TileState getTileState();
+
+}
@@ -0,0 +1,261 @@
+package datasource;
+
+import model.Checkpoint;
+import model.Stats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the checkpoint of the game in progress in a small memory-mapped file. Saving a checkpoint only copies 64 bytes
+ * into the mapping, so it costs microseconds and can be done on the FX thread; the OS writes the page back even if the
+ * process dies, and an explicit flush to disk is requested on a background thread.
+ *
+ * <pre>
+ *  0  int   magic
+ *  4  byte  version
+ *  5  byte  flags (bit 0 = daily word)
+ *  6  byte  guess count
+ *  8  long  epoch day the game was started
+ * 16  int   packed secret word
+ * 20  int[6] packed guesses
+ * 44  long  packed keyboard state
+ * 52  long  profile id (version 2 and up)
+ * 60  int   CRC32 of bytes 0-59
+ * </pre>
+ */
+public class CheckpointDatasource {
+
+    public static final String CHECKPOINT_FILE = "checkpoint.dat";
+
+    private static final int MAGIC = 0x574B4350;    // "WKCP"
+    private static final byte VERSION = 2;
+    private static final int SIZE = 64;
+    private static final int CRC_OFFSET = SIZE - 4;
+
+    /** Staging buffer the record is assembled in before it is copied into the mapping in one go **/
+    private static final ByteBuffer staging = ByteBuffer.allocate(SIZE);
+    private static final CRC32 crc = new CRC32();
+
+    private static final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicBoolean flushPending = new AtomicBoolean();
+
+    private static volatile MappedByteBuffer mapping;
+
+    /**
+     * Writes the checkpoint for the game in progress.
+     *
+     * @param checkpoint The game state to be saved
+     */
+    public static synchronized void save(Checkpoint checkpoint) {
+
+        MappedByteBuffer buffer = getMapping();
+        if (buffer == null) {
+            return;
+        }
+
+        // **********************************************************************************************
+        // Assemble the record, then copy it into the mapping and schedule a flush
+        // **********************************************************************************************
+        staging.clear();
+        staging.putInt(MAGIC);
+        staging.put(VERSION);
+        staging.put((byte) (checkpoint.isDailyWord() ? 1 : 0));
+        staging.put((byte) checkpoint.getGuessCount());
+        staging.put((byte) 0);
+        staging.putLong(checkpoint.getDate().toEpochDay());
+        staging.putInt(checkpoint.getPackedSecret());
+        for (int i = 0; i < Checkpoint.MAX_GUESSES; i++) {
+            staging.putInt(i < checkpoint.getGuessCount() ? checkpoint.getPackedGuess(i) : 0);
+        }
+        staging.putLong(checkpoint.getKeyboardState());
+        staging.putLong(checkpoint.getProfileId());
+
+        crc.reset();
+        crc.update(staging.array(), 0, CRC_OFFSET);
+        staging.putInt(CRC_OFFSET, (int) crc.getValue());
+
+        buffer.put(0, staging.array(), 0, SIZE);
+        requestFlush();
+    }
+
+    /**
+     * Reads the saved checkpoint. This also maps the checkpoint file (creating it if needed) so the first save of the
+     * session does not pay for opening it.
+     *
+     * @return The checkpoint, or null if there is none or the record is damaged
+     */
+    public static synchronized Checkpoint load() {
+
+        MappedByteBuffer buffer = getMapping();
+        if (buffer == null) {
+            return null;
+        }
+
+        buffer.get(0, staging.array(), 0, SIZE);
+        crc.reset();
+        crc.update(staging.array(), 0, CRC_OFFSET);
+
+        byte version = staging.get(4);
+        if (staging.getInt(0) != MAGIC || version < 1 || version > VERSION
+            || staging.getInt(CRC_OFFSET) != (int) crc.getValue()) {
+            return null;
+        }
+
+        int guessCount = staging.get(6);
+        if (guessCount < 0 || guessCount > Checkpoint.MAX_GUESSES) {
+            return null;
+        }
+
+        int[] guesses = new int[Checkpoint.MAX_GUESSES];
+        for (int i = 0; i < guesses.length; i++) {
+            guesses[i] = staging.getInt(20 + 4 * i);
+        }
+
+        return new Checkpoint(version >= 2 ? staging.getLong(52) : Checkpoint.ANY_PROFILE,
+                              (staging.get(5) & 1) != 0,
+                              LocalDate.ofEpochDay(staging.getLong(8)),
+                              staging.getInt(16),
+                              guesses,
+                              guessCount,
+                              staging.getLong(44));
+    }
+
+    /**
+     * Checks whether the saved checkpoint belongs to a game that can be resumed now, under the same rule for the game
+     * window and the terminal. A daily word is only resumed on the day it was started; a daily word abandoned on an
+     * earlier day is recorded as a loss, just as closing the game before it was over used to be. An unlimited-mode
+     * word is only resumed in unlimited mode once the daily word is done; otherwise it is dropped and recorded as a
+     * loss.
+     * <p>
+     * Only one checkpoint is kept, so a game of another profile is dropped too, and recorded as a loss in that
+     * profile's stats; otherwise its player could start the word over.
+     *
+     * @param stats         The stats of the profile being played; a loss is recorded in them and written
+     * @param isDailyWord   True if the profile has yet to play today's daily word
+     * @param dailyWordOnly True if only the daily word may be played
+     * @return The checkpoint to resume, or null to start normally
+     */
+    public static Checkpoint loadResumable(Stats stats, boolean isDailyWord, boolean dailyWordOnly) {
+
+        Checkpoint checkpoint = load();
+        if (checkpoint == null || checkpoint.getGuessCount() == 0) {
+            return null;
+        }
+
+        if (!checkpoint.belongsTo(stats.getProfileId())) {
+            if (StatsDatasource.getProfiles().stream().anyMatch(p -> p.getId() == checkpoint.getProfileId())) {
+                recordAbandonedGame(checkpoint, StatsDatasource.loadStats(checkpoint.getProfileId()));
+            }
+        } else if (checkpoint.isDailyWord()) {
+            if (checkpoint.getDate().equals(LocalDate.now()) && isDailyWord) {
+                return checkpoint;
+            }
+            recordAbandonedGame(checkpoint, stats);
+        } else if (!dailyWordOnly && !isDailyWord) {
+            return checkpoint;
+        } else {
+            recordAbandonedGame(checkpoint, stats);
+        }
+
+        clear();
+        return null;
+    }
+
+    /**
+     * Records the game of a checkpoint that is being dropped as a loss. A daily word is left out if its player has
+     * completed a daily word since it was started.
+     *
+     * @param checkpoint The checkpoint of the abandoned game
+     * @param stats      The stats of the profile the game belongs to
+     */
+    private static void recordAbandonedGame(Checkpoint checkpoint, Stats stats) {
+
+        if (checkpoint.isDailyWord()) {
+            if (checkpoint.getDate().isAfter(LocalDate.now())
+                || !checkpoint.getDate().isAfter(stats.getLastCompletedDailyWord())) {
+                return;
+            }
+            stats.recordAbandonedDailyWord(checkpoint.getDate());
+        } else {
+            stats.recordGame(false, false, checkpoint.getGuessCount(), checkpoint.getDate());
+        }
+        StatsDatasource.writeStatsFile(stats);
+    }
+
+    /**
+     * Discards the saved checkpoint, once the game it belongs to is over.
+     */
+    public static synchronized void clear() {
+
+        if (mapping == null && !getPath().toFile().exists()) {
+            return;
+        }
+
+        MappedByteBuffer buffer = getMapping();
+        if (buffer != null) {
+            buffer.putInt(0, 0);
+            requestFlush();
+        }
+    }
+
+    /**
+     * Writes the checkpoint to disk right away, for when the process is about to exit and the background flush, which
+     * runs on a daemon thread, might not get to run.
+     */
+    public static synchronized void flush() {
+
+        if (mapping != null) {
+            mapping.force();
+        }
+    }
+
+    private static void requestFlush() {
+
+        // **********************************************************************************************
+        // Coalesce flushes; one pending request covers every write made before it runs
+        // **********************************************************************************************
+        if (flushPending.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushPending.set(false);
+                MappedByteBuffer buffer = mapping;
+                if (buffer != null) {
+                    buffer.force();
+                }
+            });
+        }
+    }
+
+    private static MappedByteBuffer getMapping() {
+
+        if (mapping == null) {
+            try (FileChannel channel = FileChannel.open(getPath(), StandardOpenOption.CREATE,
+                                                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+            } catch (IOException e) {
+                System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+        return mapping;
+    }
+
+    private static Path getPath() {
+
+        return Paths.get(CHECKPOINT_FILE);
+    }
+
+}
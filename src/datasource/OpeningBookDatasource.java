@@ -0,0 +1,124 @@
+package datasource;
+
+import solver.OpeningBook;
+import util.DictionaryRegistry;
+import util.WordUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the opening book of each language in a small binary file.
+ *
+ * <pre>
+ *    0  int   magic
+ *    4  int   version
+ *    8  long  key of the word tables and opening the book was built for
+ *   16  int   packed opening
+ *   20  long  score of the opening
+ *   28  243 x (int packed follow-up, long score)
+ * 2944  int   CRC32 of everything before it
+ * </pre>
+ */
+public class OpeningBookDatasource {
+
+    public static final String OPENING_BOOK_FILE = "opening.dat";
+
+    private static final int MAGIC = 0x574B4F42;    // "WKOB"
+    private static final int VERSION = 1;
+    private static final int ENTRIES_OFFSET = 28;
+    private static final int CRC_OFFSET = ENTRIES_OFFSET + WordUtil.PATTERN_COUNT * 12;
+    private static final int SIZE = CRC_OFFSET + 4;
+
+    /**
+     * Loads the opening book of a language, provided it was built for the expected key.
+     *
+     * @param language The language of the word tables
+     * @param key      The key of the current word tables and opening (see {@link OpeningBook#computeKey})
+     * @return The book, or null if there is none, it is damaged or it was built for other word tables
+     */
+    public static OpeningBook load(String language, long key) {
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(getOpeningBookFile(language));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            return null;
+        }
+
+        if (bytes.length != SIZE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, CRC_OFFSET);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != key
+            || buffer.getInt(CRC_OFFSET) != (int) crc.getValue()) {
+            return null;
+        }
+
+        buffer.position(16);
+        int opening = buffer.getInt();
+        long openingScore = buffer.getLong();
+        int[] followUps = new int[WordUtil.PATTERN_COUNT];
+        long[] scores = new long[WordUtil.PATTERN_COUNT];
+        for (int pattern = 0; pattern < WordUtil.PATTERN_COUNT; pattern++) {
+            followUps[pattern] = buffer.getInt();
+            scores[pattern] = buffer.getLong();
+        }
+        return new OpeningBook(key, opening, openingScore, followUps, scores);
+    }
+
+    /**
+     * Writes the opening book of a language. The file is written next to its final name and then moved into place, so
+     * a reader never sees half a book.
+     *
+     * @param language The language of the word tables
+     * @param book     The book to store
+     */
+    public static void write(String language, OpeningBook book) {
+
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(book.getKey());
+        buffer.putInt(book.getOpening());
+        buffer.putLong(book.getOpeningScore());
+        for (int pattern = 0; pattern < WordUtil.PATTERN_COUNT; pattern++) {
+            buffer.putInt(book.getFollowUp(pattern));
+            buffer.putLong(book.getScore(pattern));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, CRC_OFFSET);
+        buffer.putInt((int) crc.getValue());
+
+        Path file = getOpeningBookFile(language);
+        Path temp = Paths.get(file + ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param language The language of the word tables
+     * @return The opening book file of that language; English keeps the plain file name
+     */
+    private static Path getOpeningBookFile(String language) {
+
+        return Paths.get(DictionaryRegistry.DEFAULT_LANGUAGE.equals(language)
+                                 ? OPENING_BOOK_FILE : "opening_" + language + ".dat");
+    }
+
+}
@@ -0,0 +1,73 @@
+package datasource;
+
+import util.DictionaryRegistry;
+import util.WordRotation;
+
+import java.io.*;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Persists the cursor of the unlimited-mode word rotation, one file per language. Only the seed, the position and the
+ * size of the word list are stored; the shuffled order itself is rebuilt from the seed.
+ */
+public class RotationDatasource {
+
+    public static final String ROTATION_FILE = "rotation.dat";
+
+    /**
+     * Loads the saved rotation. A new cycle with a fresh seed is started if there is no saved rotation or if it was
+     * made for a word list of a different size.
+     *
+     * @param language  The language of the word list
+     * @param wordCount The number of words in the current word list
+     * @return The rotation
+     */
+    public static WordRotation loadRotation(String language, int wordCount) {
+
+        final File rotationFile = new File(getRotationFile(language));
+        if (rotationFile.exists()) {
+            try (InputStream inputStream = new FileInputStream(rotationFile)) {
+
+                Properties prop = new Properties();
+                prop.load(inputStream);
+
+                if (Integer.parseInt(prop.getProperty("wordCount", "0")) == wordCount) {
+                    return new WordRotation(wordCount,
+                                            Long.parseLong(prop.getProperty("seed", "0")),
+                                            Integer.parseInt(prop.getProperty("position", "0")));
+                }
+
+            } catch (IOException | NumberFormatException e) {
+                System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+
+        return new WordRotation(wordCount, ThreadLocalRandom.current().nextLong(), 0);
+    }
+
+    public static void writeRotationFile(String language, WordRotation rotation) {
+
+        try (FileOutputStream outputStream = new FileOutputStream(getRotationFile(language))) {
+
+            Properties prop = new Properties();
+            prop.setProperty("wordCount", String.valueOf(rotation.getWordCount()));
+            prop.setProperty("seed", String.valueOf(rotation.getSeed()));
+            prop.setProperty("position", String.valueOf(rotation.getPosition()));
+            prop.store(outputStream, null);
+
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+
+    /**
+     * @param language The language of the word list
+     * @return The file holding the rotation of that language's word list; English keeps the original file name
+     */
+    private static String getRotationFile(String language) {
+
+        return DictionaryRegistry.DEFAULT_LANGUAGE.equals(language) ? ROTATION_FILE : "rotation_" + language + ".dat";
+    }
+
+}
@@ -1,135 +1,464 @@
 package datasource;
 
+import metrics.Metrics;
+import metrics.StatsPersistEvent;
+import model.Profile;
 import model.Stats;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
+/**
+ * Stores the stats of every player profile in one SQLite database, stats.dat. Each profile's aggregates are a single
+ * row of profile_stats keyed by profile id, so switching profiles reads one row however many profiles there are.
+ * <p>
+ * Older versions kept a single player's stats in stats.dat as a Properties file. Such a file is migrated into a
+ * default profile the first time the store is opened, and kept as stats.properties.bak.
+ */
 public class StatsDatasource {
 
     public static final String STATS_FILE = "stats.dat";
+    public static final String LEGACY_BACKUP_FILE = "stats.properties.bak";
 
-    public static Stats loadStats() {
+    /** Name of the profile created for a new store, or for the stats migrated from an old stats file **/
+    public static final String DEFAULT_PROFILE_NAME = "Player";
 
-        // **********************************************************************************************
-        // If the stats.dat file does not exist, create it now
-        // **********************************************************************************************
-        final File statsFile = new File(STATS_FILE);
-        if (!statsFile.exists()) {
-            writeStatsFile(new Stats());
-        }
+    /** Setting that reveals guesses at once, without animations ("true" or "false") **/
+    public static final String TURBO_SETTING = "turbo";
+
+    /** The first bytes of every SQLite database file **/
+    private static final byte[] SQLITE_HEADER = "SQLite format 3\0".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String[] STATS_COLUMNS = {
+            "last_completed_daily_word",
+            "daily_games_played", "daily_wins", "daily_losses", "daily_longest_streak", "daily_current_streak",
+            "gen_games_played", "gen_wins", "gen_losses", "gen_longest_streak", "gen_current_streak",
+            "guess_count_1", "guess_count_2", "guess_count_3", "guess_count_4", "guess_count_5", "guess_count_6"};
+
+    /** Connection to the store, opened on first use and kept for the life of the process **/
+    private static Connection connection;
+
+    /**
+     * @return The stats of the active profile
+     */
+    public static synchronized Stats loadStats() {
+
+        return loadStats(getActiveProfile().getId());
+    }
+
+    /**
+     * @param profileId The profile to load
+     * @return The stats of the given profile; a profile that has not finished a game yet gets empty stats
+     */
+    public static synchronized Stats loadStats(long profileId) {
 
-        // **********************************************************************************************
-        // Load the stats file
-        // **********************************************************************************************
         Stats stats = new Stats();
-        try (InputStream inputStream = new FileInputStream(STATS_FILE)) {
-
-            Properties prop = new Properties();
-
-            prop.load(inputStream);
-            
-            // **********************************************************************************************
-            // Set the properties of the Stats from saved file
-            // **********************************************************************************************
-            stats.setLastCompletedDailyWord(
-                    LocalDate.parse(prop.getProperty("lastCompletedDailyWord", "2021-01-01")));
-            stats.setDailyGamesPlayed(Integer.parseInt(
-                    prop.getProperty("dailyGamesPlayed", "0")));
-            stats.setDailyWins(Integer.parseInt(
-                    prop.getProperty("dailyWins", "0")));
-            stats.setDailyLosses(Integer.parseInt(
-                    prop.getProperty("dailyLosses", "0")));
-            stats.setDailyLongestStreak(Integer.parseInt(
-                    prop.getProperty("dailyLongestStreak", "0")));
-            stats.setDailyCurrentStreak(Integer.parseInt(
-                    prop.getProperty("dailyCurrentStreak", "0")));
-
-            stats.setGenGamesPlayed(Integer.parseInt(
-                    prop.getProperty("genGamesPlayed", "0")));
-            stats.setGenWins(Integer.parseInt(
-                    prop.getProperty("genWins", "0")));
-            stats.setGenLosses(Integer.parseInt(
-                    prop.getProperty("genLosses", "0")));
-            stats.setGenLongestStreak(Integer.parseInt(
-                    prop.getProperty("genLongestStreak", "0")));
-            stats.setGenCurrentStreak(Integer.parseInt(
-                    prop.getProperty("genCurrentStreak", "0")));
-
-            stats.setGuessCount1(Integer.parseInt(
-                    prop.getProperty("guessCount1", "0")));
-            stats.setGuessCount2(Integer.parseInt(
-                    prop.getProperty("guessCount2", "0")));
-            stats.setGuessCount3(Integer.parseInt(
-                    prop.getProperty("guessCount3", "0")));
-            stats.setGuessCount4(Integer.parseInt(
-                    prop.getProperty("guessCount4", "0")));
-            stats.setGuessCount5(Integer.parseInt(
-                    prop.getProperty("guessCount5", "0")));
-            stats.setGuessCount6(Integer.parseInt(
-                    prop.getProperty("guessCount6", "0")));
-
-        } catch (IOException io) {
-            io.printStackTrace();
+        stats.setProfileId(profileId);
+
+        final String sql = "select " + String.join(", ", STATS_COLUMNS) + "\n" +
+                           "from profile_stats\n" +
+                           "where profile_id = ?;";
+
+        try (PreparedStatement statement = getConnection().prepareStatement(sql)) {
+            statement.setLong(1, profileId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    stats.setLastCompletedDailyWord(LocalDate.parse(resultSet.getString(1)));
+                    stats.setDailyGamesPlayed(resultSet.getInt(2));
+                    stats.setDailyWins(resultSet.getInt(3));
+                    stats.setDailyLosses(resultSet.getInt(4));
+                    stats.setDailyLongestStreak(resultSet.getInt(5));
+                    stats.setDailyCurrentStreak(resultSet.getInt(6));
+                    stats.setGenGamesPlayed(resultSet.getInt(7));
+                    stats.setGenWins(resultSet.getInt(8));
+                    stats.setGenLosses(resultSet.getInt(9));
+                    stats.setGenLongestStreak(resultSet.getInt(10));
+                    stats.setGenCurrentStreak(resultSet.getInt(11));
+                    stats.setGuessCount1(resultSet.getInt(12));
+                    stats.setGuessCount2(resultSet.getInt(13));
+                    stats.setGuessCount3(resultSet.getInt(14));
+                    stats.setGuessCount4(resultSet.getInt(15));
+                    stats.setGuessCount5(resultSet.getInt(16));
+                    stats.setGuessCount6(resultSet.getInt(17));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
         }
 
         return stats;
 
     }
 
-    public static void writeStatsFile(Stats stats) {
+    /**
+     * Saves the stats of the profile they belong to.
+     *
+     * @param stats The stats to be saved
+     */
+    public static synchronized void writeStatsFile(Stats stats) {
 
         if (stats == null) {
             System.out.println("Stats is null!");
             return;
         }
 
-        try (OutputStream outputStream = new FileOutputStream(STATS_FILE)) {
+        StatsPersistEvent event = new StatsPersistEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        if (stats.getLastCompletedDailyWord() == null) {
+            stats.setLastCompletedDailyWord(LocalDate.now());
+        }
+
+        try {
+            writeStats(getConnection(), stats);
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        Metrics.STATS_WRITE.recordSince(start);
+        event.file = STATS_FILE;
+        event.profileId = stats.getProfileId();
+        event.commit();
+    }
+
+    /**
+     * @return All profiles, ordered by name
+     */
+    public static synchronized List<Profile> getProfiles() {
+
+        List<Profile> profiles = new ArrayList<>();
+
+        try (Statement statement = getConnection().createStatement();
+             ResultSet resultSet = statement.executeQuery("select profile_id, name\n" +
+                                                          "from profile\n" +
+                                                          "order by name;")) {
+            while (resultSet.next()) {
+                profiles.add(new Profile(resultSet.getLong(1), resultSet.getString(2)));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        return profiles;
+    }
+
+    /**
+     * @return The profile that was played last
+     */
+    public static synchronized Profile getActiveProfile() {
+
+        final String sql = "select p.profile_id, p.name\n" +
+                           "from profile p\n" +
+                           "left join app_setting s on s.name = 'active_profile_id'\n" +
+                           "order by p.profile_id = cast(s.value as integer) desc, p.profile_id\n" +
+                           "limit 1;";
+
+        try (Statement statement = getConnection().createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            if (resultSet.next()) {
+                return new Profile(resultSet.getLong(1), resultSet.getString(2));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        // **********************************************************************************************
+        // Every profile has been deleted; start over with a default one
+        // **********************************************************************************************
+        Profile profile = createProfile(DEFAULT_PROFILE_NAME);
+        setActiveProfile(profile.getId());
+        return profile;
+    }
+
+    /**
+     * Remembers the profile to be played on the next launch.
+     *
+     * @param profileId The profile being played
+     */
+    public static synchronized void setActiveProfile(long profileId) {
+
+        setSetting("active_profile_id", String.valueOf(profileId));
+    }
+
+    /**
+     * @param name         The name of the setting
+     * @param defaultValue The value to return if the setting was never saved
+     * @return The saved value of the setting
+     */
+    public static synchronized String getSetting(String name, String defaultValue) {
+
+        try (PreparedStatement statement = getConnection().prepareStatement(
+                "select value from app_setting where name = ?;")) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next() && resultSet.getString(1) != null) {
+                    return resultSet.getString(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Saves an application setting; settings are shared by all profiles.
+     *
+     * @param name  The name of the setting
+     * @param value The value to save
+     */
+    public static synchronized void setSetting(String name, String value) {
+
+        try (PreparedStatement statement = getConnection().prepareStatement(
+                "insert or replace into app_setting (name, value) values (?, ?);")) {
+            statement.setString(1, name);
+            statement.setString(2, value);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds a profile.
+     *
+     * @param name The name of the player
+     * @return The new profile
+     * @throws IllegalArgumentException If the name is blank or already taken
+     */
+    public static synchronized Profile createProfile(String name) {
+
+        final String trimmed = name == null ? "" : name.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Enter a name for the profile");
+        }
+
+        try {
+            return insertProfile(getConnection(), trimmed);
+        } catch (SQLException e) {
+            throw new IllegalArgumentException("There is already a profile named " + trimmed);
+        }
+    }
+
+    /**
+     * Removes a profile together with its stats.
+     *
+     * @param profileId The profile to remove
+     */
+    public static synchronized void deleteProfile(long profileId) {
+
+        Connection c = getConnection();
+        try {
+            c.setAutoCommit(false);
+            try (PreparedStatement deleteStats = c.prepareStatement("delete from profile_stats where profile_id = ?;");
+                 PreparedStatement deleteProfile = c.prepareStatement("delete from profile where profile_id = ?;")) {
+                deleteStats.setLong(1, profileId);
+                deleteStats.executeUpdate();
+                deleteProfile.setLong(1, profileId);
+                deleteProfile.executeUpdate();
+            }
+            c.commit();
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            try {
+                c.rollback();
+            } catch (SQLException ignored) {
+            }
+        } finally {
+            try {
+                c.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private static Connection getConnection() {
+
+        if (connection == null) {
+            try {
+                Stats legacyStats = migrateLegacyFile();
 
-            Properties prop = new Properties();
+                Class.forName("org.sqlite.JDBC");
+                connection = DriverManager.getConnection("jdbc:sqlite:" + STATS_FILE);
+                createSchema(connection);
 
-            // **********************************************************************************************
-            // Daily word stats
-            // **********************************************************************************************
-            if (stats.getLastCompletedDailyWord() == null) {
-                stats.setLastCompletedDailyWord(LocalDate.now());
+                // **********************************************************************************************
+                // A new store gets a default profile, holding the old single-player stats if there were any
+                // **********************************************************************************************
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("select count(*) from profile;")) {
+                    if (resultSet.next() && resultSet.getInt(1) == 0) {
+                        Profile profile = insertProfile(connection, DEFAULT_PROFILE_NAME);
+                        if (legacyStats != null) {
+                            legacyStats.setProfileId(profile.getId());
+                            writeStats(connection, legacyStats);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println(e.getClass().getName() + ": " + e.getMessage());
+                System.exit(0);
             }
-            prop.setProperty("lastCompletedDailyWord", stats.getLastCompletedDailyWord().format(
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-            prop.setProperty("dailyGamesPlayed", String.valueOf(stats.getDailyGamesPlayed()));
-            prop.setProperty("dailyWins", String.valueOf(stats.getDailyWins()));
-            prop.setProperty("dailyLosses", String.valueOf(stats.getDailyLosses()));
-            prop.setProperty("dailyLongestStreak", String.valueOf(stats.getDailyLongestStreak()));
-            prop.setProperty("dailyCurrentStreak", String.valueOf(stats.getDailyCurrentStreak()));
-
-            // **********************************************************************************************
-            // General word stats
-            // **********************************************************************************************
-            prop.setProperty("genGamesPlayed", String.valueOf(stats.getGenGamesPlayed()));
-            prop.setProperty("genWins", String.valueOf(stats.getGenWins()));
-            prop.setProperty("genLosses", String.valueOf(stats.getGenLosses()));
-            prop.setProperty("genLongestStreak", String.valueOf(stats.getGenLongestStreak()));
-            prop.setProperty("genCurrentStreak", String.valueOf(stats.getGenCurrentStreak()));
-
-            // **********************************************************************************************
-            // Guess counters
-            // **********************************************************************************************
-            prop.setProperty("guessCount1", String.valueOf(stats.getGuessCount1()));
-            prop.setProperty("guessCount2", String.valueOf(stats.getGuessCount2()));
-            prop.setProperty("guessCount3", String.valueOf(stats.getGuessCount3()));
-            prop.setProperty("guessCount4", String.valueOf(stats.getGuessCount4()));
-            prop.setProperty("guessCount5", String.valueOf(stats.getGuessCount5()));
-            prop.setProperty("guessCount6", String.valueOf(stats.getGuessCount6()));
-
-            // **********************************************************************************************
-            // Save the stats file to the root folder
-            // **********************************************************************************************
-            prop.store(outputStream, null);
-
-        } catch (IOException io) {
-            io.printStackTrace();
         }
+        return connection;
+    }
+
+    private static void createSchema(Connection c) throws SQLException {
+
+        StringBuilder statsColumns = new StringBuilder();
+        for (String column : STATS_COLUMNS) {
+            statsColumns.append(",\n    ").append(column).append(column.startsWith("last_") ? " text" : " integer");
+        }
+
+        try (Statement statement = c.createStatement()) {
+            statement.execute("create table if not exists profile (\n" +
+                              "    profile_id integer primary key autoincrement,\n" +
+                              "    name text not null unique collate nocase,\n" +
+                              "    created_on text not null\n" +
+                              ");");
+            statement.execute("create table if not exists profile_stats (\n" +
+                              "    profile_id integer primary key references profile (profile_id)" +
+                              statsColumns + "\n" +
+                              ");");
+            statement.execute("create table if not exists app_setting (\n" +
+                              "    name text primary key,\n" +
+                              "    value text\n" +
+                              ");");
+        }
+    }
+
+    private static Profile insertProfile(Connection c, String name) throws SQLException {
+
+        try (PreparedStatement statement = c.prepareStatement(
+                "insert into profile (name, created_on) values (?, ?);", Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, name);
+            statement.setString(2, LocalDate.now().toString());
+            statement.executeUpdate();
+
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return new Profile(keys.getLong(1), name);
+            }
+        }
+    }
+
+    private static void writeStats(Connection c, Stats stats) throws SQLException {
+
+        final String sql = "insert or replace into profile_stats (profile_id, " + String.join(", ", STATS_COLUMNS) +
+                           ")\nvalues (?" + ", ?".repeat(STATS_COLUMNS.length) + ");";
+
+        try (PreparedStatement statement = c.prepareStatement(sql)) {
+            statement.setLong(1, stats.getProfileId());
+            statement.setString(2, stats.getLastCompletedDailyWord().toString());
+            statement.setInt(3, stats.getDailyGamesPlayed());
+            statement.setInt(4, stats.getDailyWins());
+            statement.setInt(5, stats.getDailyLosses());
+            statement.setInt(6, stats.getDailyLongestStreak());
+            statement.setInt(7, stats.getDailyCurrentStreak());
+            statement.setInt(8, stats.getGenGamesPlayed());
+            statement.setInt(9, stats.getGenWins());
+            statement.setInt(10, stats.getGenLosses());
+            statement.setInt(11, stats.getGenLongestStreak());
+            statement.setInt(12, stats.getGenCurrentStreak());
+            statement.setInt(13, stats.getGuessCount1());
+            statement.setInt(14, stats.getGuessCount2());
+            statement.setInt(15, stats.getGuessCount3());
+            statement.setInt(16, stats.getGuessCount4());
+            statement.setInt(17, stats.getGuessCount5());
+            statement.setInt(18, stats.getGuessCount6());
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * If stats.dat is a Properties file from an older version, reads it and moves it out of the way.
+     *
+     * @return The stats read from the old file, or null if there was none
+     */
+    private static Stats migrateLegacyFile() throws IOException {
+
+        final Path statsFile = Paths.get(STATS_FILE);
+        if (!Files.isRegularFile(statsFile) || Files.size(statsFile) == 0) {
+            return null;
+        }
+
+        byte[] header = new byte[SQLITE_HEADER.length];
+        try (InputStream inputStream = Files.newInputStream(statsFile)) {
+            int read = inputStream.readNBytes(header, 0, header.length);
+            if (read == header.length && Arrays.equals(header, SQLITE_HEADER)) {
+                return null;
+            }
+        }
+
+        Stats stats;
+        try (InputStream inputStream = Files.newInputStream(statsFile)) {
+            stats = readLegacyStats(inputStream);
+        }
+        Files.move(statsFile, Paths.get(LEGACY_BACKUP_FILE), StandardCopyOption.REPLACE_EXISTING);
+        return stats;
+    }
+
+    private static Stats readLegacyStats(InputStream inputStream) throws IOException {
+
+        Stats stats = new Stats();
+
+        Properties prop = new Properties();
+
+        prop.load(inputStream);
+
+        // **********************************************************************************************
+        // Set the properties of the Stats from saved file
+        // **********************************************************************************************
+        stats.setLastCompletedDailyWord(
+                LocalDate.parse(prop.getProperty("lastCompletedDailyWord", "2021-01-01")));
+        stats.setDailyGamesPlayed(Integer.parseInt(
+                prop.getProperty("dailyGamesPlayed", "0")));
+        stats.setDailyWins(Integer.parseInt(
+                prop.getProperty("dailyWins", "0")));
+        stats.setDailyLosses(Integer.parseInt(
+                prop.getProperty("dailyLosses", "0")));
+        stats.setDailyLongestStreak(Integer.parseInt(
+                prop.getProperty("dailyLongestStreak", "0")));
+        stats.setDailyCurrentStreak(Integer.parseInt(
+                prop.getProperty("dailyCurrentStreak", "0")));
+
+        stats.setGenGamesPlayed(Integer.parseInt(
+                prop.getProperty("genGamesPlayed", "0")));
+        stats.setGenWins(Integer.parseInt(
+                prop.getProperty("genWins", "0")));
+        stats.setGenLosses(Integer.parseInt(
+                prop.getProperty("genLosses", "0")));
+        stats.setGenLongestStreak(Integer.parseInt(
+                prop.getProperty("genLongestStreak", "0")));
+        stats.setGenCurrentStreak(Integer.parseInt(
+                prop.getProperty("genCurrentStreak", "0")));
+
+        stats.setGuessCount1(Integer.parseInt(
+                prop.getProperty("guessCount1", "0")));
+        stats.setGuessCount2(Integer.parseInt(
+                prop.getProperty("guessCount2", "0")));
+        stats.setGuessCount3(Integer.parseInt(
+                prop.getProperty("guessCount3", "0")));
+        stats.setGuessCount4(Integer.parseInt(
+                prop.getProperty("guessCount4", "0")));
+        stats.setGuessCount5(Integer.parseInt(
+                prop.getProperty("guessCount5", "0")));
+        stats.setGuessCount6(Integer.parseInt(
+                prop.getProperty("guessCount6", "0")));
+
+        return stats;
     }
 }
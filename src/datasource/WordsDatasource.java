@@ -1,21 +1,46 @@
 package datasource;
 
+import metrics.Metrics;
+import metrics.WordTableLoadEvent;
+
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class WordsDatasource {
 
-    public static final String DATABASE_CONNECTION = "jdbc:sqlite:workle.dat";
+    public static final String DATABASE_FILE = "workle.dat";
+    public static final String DATABASE_CONNECTION = "jdbc:sqlite:" + DATABASE_FILE;
+
+    /**
+     * Builds the connection URL of a word database file.
+     *
+     * @param databaseFile The name of the SQLite file, for example workle.dat
+     * @return The JDBC connection URL
+     */
+    public static String getConnectionUrl(String databaseFile) {
+
+        return "jdbc:sqlite:" + databaseFile;
+    }
 
     public static List<String> getDictionary() {
 
+        return getDictionary(DATABASE_CONNECTION);
+    }
+
+    public static List<String> getDictionary(String connectionUrl) {
+
         final String query = "select word\n" +
                              "from main.dictionary;";
 
         List<String> dict = new ArrayList<>();
 
-        try (Connection connection = getConnection();
+        WordTableLoadEvent event = new WordTableLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        try (Connection connection = getConnection(connectionUrl);
              Statement statement = connection.createStatement();
              ResultSet resultSet = statement.executeQuery(query)) {
 
@@ -28,18 +53,32 @@ public class WordsDatasource {
             System.err.println(e.getClass().getName() + ": " + e.getMessage());
             System.exit(0);
         }
+        Metrics.WORDS_QUERY.recordSince(start);
+        event.table = "dictionary";
+        event.wordCount = dict.size();
+        event.commit();
 
         return dict;
     }
 
     public static List<String> getWordList() {
 
+        return getWordList(DATABASE_CONNECTION);
+    }
+
+    public static List<String> getWordList(String connectionUrl) {
+
         final String query = "select word\n" +
-                             "from main.word_list;";
+                             "from main.word_list\n" +
+                             "order by word_id;";
 
         List<String> wordList = new ArrayList<>();
 
-        try (Connection connection = getConnection();
+        WordTableLoadEvent event = new WordTableLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        try (Connection connection = getConnection(connectionUrl);
              Statement statement = connection.createStatement();
              ResultSet resultSet = statement.executeQuery(query)) {
 
@@ -52,19 +91,87 @@ public class WordsDatasource {
             System.err.println(e.getClass().getName() + ": " + e.getMessage());
             System.exit(0);
         }
+        Metrics.WORDS_QUERY.recordSince(start);
+        event.table = "word_list";
+        event.wordCount = wordList.size();
+        event.commit();
 
         return wordList;
     }
 
+    /**
+     * Reads the relative frequency weight of every word in the word list, in the same order as {@link #getWordList()}.
+     * The weight column is optional: if the table has none, every word gets a weight of 1. Missing values also count
+     * as 1.
+     *
+     * @return The weight of each word
+     */
+    public static double[] getWordWeights() {
+
+        return getWordWeights(DATABASE_CONNECTION);
+    }
+
+    /**
+     * Reads the word weights from the given database; see {@link #getWordWeights()}.
+     *
+     * @param connectionUrl The JDBC connection URL of the word database
+     * @return The weight of each word
+     */
+    public static double[] getWordWeights(String connectionUrl) {
+
+        final String query = "select weight\n" +
+                             "from main.word_list\n" +
+                             "order by word_id;";
+
+        List<Double> weights = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        try (Connection connection = getConnection(connectionUrl)) {
+
+            if (!hasColumn(connection, "word_list", "weight")) {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("select count(*) from main.word_list;")) {
+                    double[] uniform = new double[resultSet.next() ? resultSet.getInt(1) : 0];
+                    Arrays.fill(uniform, 1.0);
+                    Metrics.WORDS_QUERY.recordSince(start);
+                    return uniform;
+                }
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(query)) {
+                while (resultSet.next()) {
+                    double weight = resultSet.getDouble(1);
+                    weights.add(resultSet.wasNull() ? 1.0 : weight);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            System.exit(0);
+        }
+        Metrics.WORDS_QUERY.recordSince(start);
+
+        return weights.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
     public static String getWordById(long wordId) {
 
+        return getWordById(DATABASE_CONNECTION, wordId);
+    }
+
+    public static String getWordById(String connectionUrl, long wordId) {
+
         final String sql = "select word\n" +
                            "from word_list\n" +
                            "where word_id = ?;";
 
         String word = null;
 
-        try (Connection connection = getConnection();
+        long start = System.nanoTime();
+
+        try (Connection connection = getConnection(connectionUrl);
              PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setLong(1, wordId);
 
@@ -77,18 +184,35 @@ public class WordsDatasource {
             System.err.println(e.getClass().getName() + ": " + e.getMessage());
             System.exit(0);
         }
+        Metrics.WORDS_QUERY.recordSince(start);
 
         return word;
 
     }
 
-    private static Connection getConnection() {
+    /**
+     * @return True if the given table has a column with the given name
+     */
+    public static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("pragma table_info(" + table + ");")) {
+            while (resultSet.next()) {
+                if (column.equalsIgnoreCase(resultSet.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Connection getConnection(String connectionUrl) {
 
         Connection c = null;
 
         try {
             Class.forName("org.sqlite.JDBC");
-            c = DriverManager.getConnection(DATABASE_CONNECTION);
+            c = DriverManager.getConnection(connectionUrl);
         } catch (Exception e) {
             System.err.println(e.getClass().getName() + ": " + e.getMessage());
             System.exit(0);
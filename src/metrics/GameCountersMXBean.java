@@ -0,0 +1,14 @@
+package metrics;
+
+/**
+ * Management interface for the gameplay counters.
+ */
+public interface GameCountersMXBean {
+
+    long getGamesStarted();
+
+    long getGuessesSubmitted();
+
+    long getInvalidWordRejections();
+
+}
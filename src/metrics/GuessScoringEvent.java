@@ -0,0 +1,24 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("workle.GuessScoring")
+@Label("Guess Scoring")
+@Category({"Workle", "Game"})
+@Description("Scoring a guess against the secret word")
+public class GuessScoringEvent extends Event {
+
+    @Label("Word Length")
+    public int wordLength;
+
+    @Label("Correct Letters")
+    public int correctCount;
+
+    @Label("Present Letters")
+    public int presentCount;
+
+}
@@ -0,0 +1,24 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("workle.GuessValidation")
+@Label("Guess Validation")
+@Category({"Workle", "Game"})
+@Description("Looking up a submitted guess in the dictionary")
+public class GuessValidationEvent extends Event {
+
+    @Label("Word Length")
+    public int wordLength;
+
+    @Label("Dictionary Size")
+    public int dictionarySize;
+
+    @Label("Valid")
+    public boolean valid;
+
+}
@@ -0,0 +1,18 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("workle.KeyboardUpdate")
+@Label("Keyboard Update")
+@Category({"Workle", "UI"})
+@Description("Restyling the onscreen keyboard after a guess is revealed")
+public class KeyboardUpdateEvent extends Event {
+
+    @Label("Keys Updated")
+    public int keysUpdated;
+
+}
@@ -0,0 +1,129 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with one bucket per power of two nanoseconds. Recording a value is a handful of
+ * atomic updates on preallocated arrays, so it can be called from the FX thread on every event without allocating.
+ */
+public class LatencyHistogram implements LatencyMXBean {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one event.
+     *
+     * @param nanos The duration of the event in nanoseconds
+     */
+    public void record(long nanos) {
+
+        if (nanos < 0) {
+            return;
+        }
+
+        // **********************************************************************************************
+        // Bucket i holds values in [2^i, 2^(i+1)); zero goes into the first bucket
+        // **********************************************************************************************
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since the given {@link System#nanoTime()} value.
+     *
+     * @param startNanos The value of {@link System#nanoTime()} when the event started
+     */
+    public void recordSince(long startNanos) {
+
+        record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getCount() {
+
+        return count.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+
+        long n = count.get();
+        return n == 0 ? 0 : toMillis(totalNanos.get()) / n;
+    }
+
+    @Override
+    public double getMaxMillis() {
+
+        return toMillis(maxNanos.get());
+    }
+
+    @Override
+    public double getP50Millis() {
+
+        return percentile(0.50);
+    }
+
+    @Override
+    public double getP95Millis() {
+
+        return percentile(0.95);
+    }
+
+    @Override
+    public double getP99Millis() {
+
+        return percentile(0.99);
+    }
+
+    @Override
+    public void reset() {
+
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private double percentile(double fraction) {
+
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(toMillis(1L << (i + 1)), getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    private static double toMillis(long nanos) {
+
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,23 @@
+package metrics;
+
+/**
+ * Management interface for a latency histogram. All times are reported in milliseconds; percentiles are the upper
+ * bound of the power-of-two bucket the percentile falls into, so they may overstate the real value by up to 2x.
+ */
+public interface LatencyMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    void reset();
+
+}
@@ -0,0 +1,25 @@
+package metrics;
+
+/**
+ * Management interface for the memory held by the word tables and the structures built over them.
+ */
+public interface MemoryUsageMXBean {
+
+    /**
+     * @return The estimated heap size of the loaded dictionary packs
+     */
+    long getDictionaryHeapBytes();
+
+    /**
+     * @return The off-heap memory allocated directly
+     */
+    long getOffHeapDirectBytes();
+
+    /**
+     * @return The off-heap memory mapped from index files
+     */
+    long getOffHeapMappedBytes();
+
+    int getOffHeapArenas();
+
+}
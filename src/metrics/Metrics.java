@@ -0,0 +1,140 @@
+package metrics;
+
+import util.DictionaryRegistry;
+import util.OffHeapArena;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide timing histograms and counters, exported as JMX MBeans under the {@code workle} domain. The fields can
+ * be recorded to from any thread; registration with the platform MBean server is deferred to {@link #register()} so
+ * that loading this class does not pull JMX into the startup path.
+ */
+public class Metrics {
+
+    private static final Logger logger = Logger.getLogger("Metrics");
+
+    /** From the Enter key press in handleEnter until the last tile of the guess has been revealed **/
+    public static final LatencyHistogram GUESS_REVEAL = new LatencyHistogram();
+
+    /** Dictionary lookups in WordUtil.isValidWord **/
+    public static final LatencyHistogram WORD_VALIDATION = new LatencyHistogram();
+
+    /** Writing the stats file **/
+    public static final LatencyHistogram STATS_WRITE = new LatencyHistogram();
+
+    /** Queries against workle.dat in WordsDatasource **/
+    public static final LatencyHistogram WORDS_QUERY = new LatencyHistogram();
+
+    /** The scene graph part of each FX pulse (animation, CSS and layout), from the pre- to the post-layout listener **/
+    public static final LatencyHistogram FX_PULSE = new LatencyHistogram();
+
+    private static final LongAdder gamesStarted = new LongAdder();
+    private static final LongAdder guessesSubmitted = new LongAdder();
+    private static final LongAdder invalidWordRejections = new LongAdder();
+
+    private static volatile boolean registered;
+
+    public static void gameStarted() {
+
+        gamesStarted.increment();
+    }
+
+    public static void guessSubmitted() {
+
+        guessesSubmitted.increment();
+    }
+
+    public static void invalidWordRejected() {
+
+        invalidWordRejections.increment();
+    }
+
+    /**
+     * Registers the MBeans with the platform MBean server. Safe to call more than once; meant to be called from a
+     * background thread, since bringing up JMX costs more than the rest of the metrics put together.
+     */
+    public static synchronized void register() {
+
+        if (registered) {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            server.registerMBean(GUESS_REVEAL, latencyName("GuessReveal"));
+            server.registerMBean(WORD_VALIDATION, latencyName("WordValidation"));
+            server.registerMBean(STATS_WRITE, latencyName("StatsWrite"));
+            server.registerMBean(WORDS_QUERY, latencyName("WordsQuery"));
+            server.registerMBean(FX_PULSE, latencyName("FxPulse"));
+            server.registerMBean(new GameCounters(), new ObjectName("workle:type=GameCounters"));
+            server.registerMBean(new MemoryUsage(), new ObjectName("workle:type=MemoryUsage"));
+
+            registered = true;
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Unable to register metrics MBeans", e);
+        }
+    }
+
+    private static ObjectName latencyName(String name) throws Exception {
+
+        return new ObjectName("workle:type=Latency,name=" + name);
+    }
+
+    private static class GameCounters implements GameCountersMXBean {
+
+        @Override
+        public long getGamesStarted() {
+
+            return gamesStarted.sum();
+        }
+
+        @Override
+        public long getGuessesSubmitted() {
+
+            return guessesSubmitted.sum();
+        }
+
+        @Override
+        public long getInvalidWordRejections() {
+
+            return invalidWordRejections.sum();
+        }
+
+    }
+
+    private static class MemoryUsage implements MemoryUsageMXBean {
+
+        @Override
+        public long getDictionaryHeapBytes() {
+
+            return DictionaryRegistry.getResidentHeapBytes();
+        }
+
+        @Override
+        public long getOffHeapDirectBytes() {
+
+            return OffHeapArena.getDirectBytes();
+        }
+
+        @Override
+        public long getOffHeapMappedBytes() {
+
+            return OffHeapArena.getMappedBytes();
+        }
+
+        @Override
+        public int getOffHeapArenas() {
+
+            return OffHeapArena.getOpenArenas();
+        }
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("workle.PopupLoad")
+@Label("Popup Load")
+@Category({"Workle", "UI"})
+@Description("Loading the FXML layout of a popup window")
+public class PopupLoadEvent extends Event {
+
+    @Label("Layout")
+    public String layout;
+
+}
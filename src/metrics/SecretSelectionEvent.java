@@ -0,0 +1,25 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("workle.SecretSelection")
+@Label("Secret Selection")
+@Category({"Workle", "Game"})
+@Description("Choosing the secret word for a new game")
+public class SecretSelectionEvent extends Event {
+
+    @Label("Daily Word")
+    public boolean daily;
+
+    @Label("Word Length")
+    public int wordLength;
+
+    @Label("Candidate Count")
+    @Description("Number of words the secret was chosen from")
+    public int candidateCount;
+
+}
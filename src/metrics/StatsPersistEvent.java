@@ -0,0 +1,21 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("workle.StatsPersist")
+@Label("Stats Persist")
+@Category({"Workle", "IO"})
+@Description("Writing a player's statistics to the stats store")
+public class StatsPersistEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Profile")
+    public long profileId;
+
+}
@@ -0,0 +1,21 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("workle.WordTableLoad")
+@Label("Word Table Load")
+@Category({"Workle", "Dictionary"})
+@Description("Loading a word table from workle.dat into memory")
+public class WordTableLoadEvent extends Event {
+
+    @Label("Table")
+    public String table;
+
+    @Label("Word Count")
+    public int wordCount;
+
+}
@@ -0,0 +1,81 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Snapshot of a game in progress, written after every submitted guess so the game can be resumed after the app is
+ * closed or crashes. Words are stored packed (see WordUtil.packWord()).
+ */
+public class Checkpoint {
+
+    /** Maximum number of guesses in a game **/
+    public static final int MAX_GUESSES = 6;
+
+    /** Profile id of checkpoints written before profiles existed; they belong to whoever plays next **/
+    public static final long ANY_PROFILE = -1;
+
+    private final long profileId;
+    private final boolean dailyWord;
+    private final LocalDate date;
+    private final int packedSecret;
+    private final int[] packedGuesses;
+    private final int guessCount;
+    private final long keyboardState;
+
+    public Checkpoint(long profileId, boolean dailyWord, LocalDate date, int packedSecret, int[] packedGuesses,
+                      int guessCount, long keyboardState) {
+
+        this.profileId = profileId;
+        this.dailyWord = dailyWord;
+        this.date = date;
+        this.packedSecret = packedSecret;
+        this.packedGuesses = packedGuesses;
+        this.guessCount = guessCount;
+        this.keyboardState = keyboardState;
+    }
+
+    public long getProfileId() {
+
+        return profileId;
+    }
+
+    /**
+     * @param profileId The profile being played
+     * @return True if this checkpoint is a game of the given profile
+     */
+    public boolean belongsTo(long profileId) {
+
+        return this.profileId == ANY_PROFILE || this.profileId == profileId;
+    }
+
+    public boolean isDailyWord() {
+
+        return dailyWord;
+    }
+
+    public LocalDate getDate() {
+
+        return date;
+    }
+
+    public int getPackedSecret() {
+
+        return packedSecret;
+    }
+
+    public int getPackedGuess(int index) {
+
+        return packedGuesses[index];
+    }
+
+    public int getGuessCount() {
+
+        return guessCount;
+    }
+
+    public long getKeyboardState() {
+
+        return keyboardState;
+    }
+
+}
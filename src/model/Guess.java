@@ -2,10 +2,10 @@ package model;
 
 import animatefx.animation.*;
 import controls.GameTile;
+import controls.Tile;
 import javafx.animation.PauseTransition;
 import javafx.animation.SequentialTransition;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import javafx.scene.Node;
 import javafx.util.Duration;
 
 import java.util.ArrayList;
@@ -14,19 +14,44 @@ import java.util.List;
 public class Guess {
 
     // **********************************************************************************************
-    // The list of game tiles in this guess/row
+    // The list of game tiles in this guess/row, and the same tiles as nodes if they are GameTiles (tiles
+    // drawn on a BoardCanvas have no node to add to a pane or to animate)
     // **********************************************************************************************
-    private final List<GameTile> gameTiles = new ArrayList<>();
+    private final List<Tile> gameTiles = new ArrayList<>();
+    private final List<Node> tileNodes = new ArrayList<>();
 
     // **********************************************************************************************
-    // The StringProperty to hold this guess
+    // The letters of this guess, and how many of them have been typed so far
     // **********************************************************************************************
-    private final StringProperty guessString = new SimpleStringProperty("");
+    private final char[] letters = new char[5];
+    private int length;
+
+    /** The tile text for each letter A-Z, so that typing a letter does not create a String **/
+    private static final String[] LETTER_STRINGS = new String[26];
+
+    static {
+        for (int i = 0; i < LETTER_STRINGS.length; i++) {
+            LETTER_STRINGS[i] = String.valueOf((char) ('A' + i));
+        }
+    }
+
+    // **********************************************************************************************
+    // The tile currently flagged as a dead end (no dictionary word has this prefix), or -1
+    // **********************************************************************************************
+    private int noMatchTile = -1;
 
     public Guess() {
 
         initGameTiles();
-        initGuessChangeListener();
+
+    }
+
+    /**
+     * @param tiles The 5 tiles to show this guess on
+     */
+    public Guess(List<? extends Tile> tiles) {
+
+        gameTiles.addAll(tiles);
 
     }
 
@@ -36,54 +61,57 @@ public class Guess {
         // Populate the list of 5 game tiles for this guess
         // **********************************************************************************************
         for (int i = 0; i < 5; i++) {
-            gameTiles.add(new GameTile());
+            GameTile tile = new GameTile();
+            gameTiles.add(tile);
+            tileNodes.add(tile);
         }
 
     }
 
-    private void initGuessChangeListener() {
+    /**
+     * Updates the one tile whose letter changed, and moves the cursor to the next empty tile, if there is one.
+     *
+     * @param index     The index of the letter that was added or removed
+     * @param oldLength The length of the guess before the change
+     */
+    private void letterChanged(int index, int oldLength) {
 
-        guessString.addListener((observable, oldValue, newValue) -> {
-            // **********************************************************************************************
-            // Update the letters for each game tile
-            // **********************************************************************************************
-            for (int i = 0; i < 5; i++) {
-
-                // **********************************************************************************************
-                // Get the game tile
-                // **********************************************************************************************
-                final GameTile tile = gameTiles.get(i);
-
-                // **********************************************************************************************
-                // Get the letter at this index in the guess string. If we've reached the end of the guess,
-                // for example when there are not yet 5 letters in the guess, we'll use null for the letter
-                // **********************************************************************************************
-                String iLetter;
-                if (i < guessString.get().length()) {
-                    iLetter = String.valueOf(guessString.get().charAt(i));
-                } else {
-                    iLetter = null;
-                }
-
-                // **********************************************************************************************
-                // Set the letter for this tile and remove the cursor class, if present.
-                // **********************************************************************************************
-                tile.setLetter(iLetter);
-                tile.setIsCursor(false);
-
-            }
+        Tile tile = gameTiles.get(index);
+        tile.setLetter(index < length ? toTileText(letters[index]) : null);
 
-            // **********************************************************************************************
-            // If there are still blank spots in the guess, move the cursor to the next empty tile, otherwise
-            // remove the cursor
-            // **********************************************************************************************
-            if (guessString.get().length() < 5) {
+        if (oldLength < 5) {
+            gameTiles.get(oldLength).setIsCursor(false);
+        }
+        if (length < 5) {
+            gameTiles.get(length).setIsCursor(true);
+        }
+    }
+
+    private static String toTileText(char letter) {
+
+        return letter >= 'A' && letter <= 'Z' ? LETTER_STRINGS[letter - 'A'] : String.valueOf(letter);
+    }
 
-                GameTile nextTile = gameTiles.get(guessString.get().length());
-                nextTile.setIsCursor(true);
-            }
-        });
+    /**
+     * Flags whether any dictionary word still starts with the letters in this guess. The flag is shown on the cursor
+     * tile, or on the last tile once the guess is full.
+     *
+     * @param matched True if the current letters are the prefix of at least one valid word
+     */
+    public void setPrefixMatched(boolean matched) {
+
+        int tile = matched ? -1 : Math.min(length, gameTiles.size() - 1);
+        if (tile == noMatchTile) {
+            return;
+        }
 
+        if (noMatchTile >= 0) {
+            gameTiles.get(noMatchTile).setNoMatch(false);
+        }
+        if (tile >= 0) {
+            gameTiles.get(tile).setNoMatch(true);
+        }
+        noMatchTile = tile;
     }
 
     public void setTileState(int index, TileState state) {
@@ -91,6 +119,14 @@ public class Guess {
         gameTiles.get(index).setTileState(state);
     }
 
+    /**
+     * @return True if the tiles are nodes, which the reveal and win animations need
+     */
+    public boolean isAnimated() {
+
+        return !tileNodes.isEmpty();
+    }
+
     public List<SequentialTransition> getTileOutAnimations() {
         // **********************************************************************************************
         // Configure the delays for the animations
@@ -105,7 +141,7 @@ public class Guess {
             // **********************************************************************************************
             // Get the corresponding tile so we can animate it
             // **********************************************************************************************
-            GameTile tile = gameTiles.get(i);
+            Node tile = tileNodes.get(i);
 
             AnimationFX outAnim = new FlipOutY(tile);
             outAnim.setSpeed(1.5);
@@ -135,7 +171,7 @@ public class Guess {
             // **********************************************************************************************
             // Get the corresponding tile so we can animate it
             // **********************************************************************************************
-            GameTile tile = gameTiles.get(i);
+            Node tile = tileNodes.get(i);
 
             AnimationFX inAnim = new FlipInY(tile);
             inAnim.setSpeed(2.0);
@@ -163,7 +199,7 @@ public class Guess {
             // **********************************************************************************************
             // Get the corresponding tile so we can animate it
             // **********************************************************************************************
-            GameTile tile = gameTiles.get(i);
+            Node tile = tileNodes.get(i);
 
             AnimationFX inAnim = new Flash(tile);
 
@@ -176,29 +212,61 @@ public class Guess {
 
     public void addLetter(char letter) {
 
-        guessString.set(guessString.getValue() + letter);
-
+        if (length < 5) {
+            letters[length] = letter;
+            length++;
+            letterChanged(length - 1, length - 1);
+        }
     }
 
     public void removeLetter() {
 
-        guessString.set((guessString.isEmpty().get()
-                ? "" : guessString.getValue().replaceAll(".$", "")));
+        if (length > 0) {
+            length--;
+            letters[length] = 0;
+            letterChanged(length, length + 1);
+        }
+    }
+
+    /**
+     * @return The number of letters typed so far
+     */
+    public int length() {
+
+        return length;
+    }
+
+    /**
+     * @return The letter at the index, which must be below {@link #length()}
+     */
+    public char charAt(int index) {
+
+        return letters[index];
     }
 
     public String getGuessString() {
 
-        return guessString.getValue();
+        return new String(letters, 0, length);
     }
 
-    public List<GameTile> getGameTiles() {
+    public List<Tile> getGameTiles() {
 
         return gameTiles;
     }
 
+    /**
+     * @return The tiles as nodes to add to the board pane; empty if the tiles are drawn on a canvas
+     */
+    public List<Node> getTileNodes() {
+
+        return tileNodes;
+    }
+
     public void clear() {
 
-        guessString.set("");
+        while (length > 0) {
+            removeLetter();
+        }
     }
 
 }
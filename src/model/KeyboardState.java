@@ -0,0 +1,128 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * Helpers for the onscreen keyboard state packed into a long: two bits per letter (bit 0-1 = A), where 0 means the key
+ * has not been marked yet and 1, 2 and 3 mean ABSENT, PRESENT and CORRECT. The packed form is what the game keeps
+ * between guesses and what gets written to the checkpoint file.
+ */
+public class KeyboardState {
+
+    /** No key marked **/
+    public static final long EMPTY = 0L;
+
+    private static final int UNMARKED = 0;
+    private static final int ABSENT = 1;
+    private static final int PRESENT = 2;
+    private static final int CORRECT = 3;
+
+    /**
+     * @param state  The packed keyboard state
+     * @param letter An uppercase letter
+     * @return The state of the key, or BLANK if it has not been marked
+     */
+    public static TileState get(long state, char letter) {
+
+        switch ((int) (state >>> shift(letter)) & 3) {
+            case ABSENT:
+                return TileState.ABSENT;
+            case PRESENT:
+                return TileState.PRESENT;
+            case CORRECT:
+                return TileState.CORRECT;
+            default:
+                return TileState.BLANK;
+        }
+    }
+
+    /**
+     * Applies the letter states of one revealed guess. A key marked CORRECT never changes again, and a key marked
+     * PRESENT is not downgraded to ABSENT, because a duplicate letter in a guess can be ABSENT even though the letter
+     * is in the word.
+     *
+     * @param state        The packed keyboard state before the guess
+     * @param letterStates The letter states from WordUtil.getKeyboardTileStates()
+     * @return The packed keyboard state after the guess
+     */
+    public static long merge(long state, Map<Character, TileState> letterStates) {
+
+        for (Map.Entry<Character, TileState> entry : letterStates.entrySet()) {
+
+            switch (entry.getValue()) {
+                case CORRECT:
+                    state = apply(state, shift(entry.getKey()), CORRECT);
+                    break;
+                case PRESENT:
+                    state = apply(state, shift(entry.getKey()), PRESENT);
+                    break;
+                case ABSENT:
+                    state = apply(state, shift(entry.getKey()), ABSENT);
+                    break;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Applies one revealed guess given as a pattern code, with the same result as {@link #merge(long, Map)} on the
+     * states from WordUtil.getKeyboardTileStates(), but without allocating. A letter that occurs more than once takes
+     * the state of its first CORRECT or PRESENT occurrence, or ABSENT if it has none.
+     *
+     * @param state       The packed keyboard state before the guess
+     * @param packedGuess The packed guess (5 bits per letter, first letter lowest)
+     * @param pattern     The pattern code of the guess (one base-3 digit per letter, first letter lowest)
+     * @return The packed keyboard state after the guess
+     */
+    public static long merge(long state, int packedGuess, int pattern) {
+
+        int guessed = 0;
+        int decided = 0;
+        int correct = 0;
+        for (int i = 0; i < 5; i++, pattern /= 3) {
+            int bit = 1 << ((packedGuess >>> (5 * i)) & 31);
+            guessed |= bit;
+            if ((decided & bit) == 0 && pattern % 3 != 0) {
+                decided |= bit;
+                if (pattern % 3 == 2) {
+                    correct |= bit;
+                }
+            }
+        }
+
+        while (guessed != 0) {
+            int letter = Integer.numberOfTrailingZeros(guessed);
+            int bit = 1 << letter;
+            guessed &= ~bit;
+            state = apply(state, 2 * letter, (correct & bit) != 0 ? CORRECT : (decided & bit) != 0 ? PRESENT : ABSENT);
+        }
+        return state;
+    }
+
+    /**
+     * Marks one key; CORRECT is never changed again and PRESENT is not downgraded to ABSENT.
+     */
+    private static long apply(long state, int shift, int marked) {
+
+        int current = (int) (state >>> shift) & 3;
+        int next;
+        switch (marked) {
+            case CORRECT:
+                next = CORRECT;
+                break;
+            case PRESENT:
+                next = current == CORRECT ? CORRECT : PRESENT;
+                break;
+            default:
+                next = current == UNMARKED ? ABSENT : current;
+                break;
+        }
+        return (state & ~(3L << shift)) | ((long) next << shift);
+    }
+
+    private static int shift(char letter) {
+
+        return 2 * (Character.toUpperCase(letter) - 'A');
+    }
+
+}
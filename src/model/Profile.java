@@ -0,0 +1,33 @@
+package model;
+
+/**
+ * A local player. Every profile keeps its own stats and streaks in the shared stats store.
+ */
+public class Profile {
+
+    private final long id;
+    private final String name;
+
+    public Profile(long id, String name) {
+
+        this.id = id;
+        this.name = name;
+    }
+
+    public long getId() {
+
+        return id;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+    @Override
+    public String toString() {
+
+        return name;
+    }
+
+}
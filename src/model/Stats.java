@@ -9,6 +9,9 @@ import java.time.LocalDate;
 
 public class Stats {
 
+    /** The profile these stats belong to **/
+    private long profileId;
+
     // **********************************************************************************************
     // Daily stats
     // **********************************************************************************************
@@ -42,6 +45,89 @@ public class Stats {
 
     }
 
+    /**
+     * Records the result of a finished game in which at least one guess was made.
+     *
+     * @param dailyWord  Was the game played on the daily word?
+     * @param win        Was the word guessed?
+     * @param guessCount The number of guesses made (1-6)
+     * @param day        The day the game was finished on
+     */
+    public void recordGame(boolean dailyWord, boolean win, int guessCount, LocalDate day) {
+
+        if (dailyWord) {
+            setLastCompletedDailyWord(day);
+            setDailyGamesPlayed(getDailyGamesPlayed() + 1);
+
+            if (win) {
+                setDailyWins(getDailyWins() + 1);
+                setDailyCurrentStreak(getDailyCurrentStreak() + 1);
+            } else {
+                setDailyLosses(getDailyLosses() + 1);
+                setDailyCurrentStreak(0);
+            }
+        } else {
+            setGenGamesPlayed(getGenGamesPlayed() + 1);
+
+            if (win) {
+                setGenWins(getGenWins() + 1);
+                setGenCurrentStreak(getGenCurrentStreak() + 1);
+            } else {
+                setGenLosses(getGenLosses() + 1);
+                setGenCurrentStreak(0);
+            }
+        }
+
+        // **********************************************************************************************
+        // Increase the guess count the word was found in
+        // **********************************************************************************************
+        if (win) {
+            switch (guessCount) {
+                case 1:
+                    setGuessCount1(getGuessCount1() + 1);
+                    break;
+                case 2:
+                    setGuessCount2(getGuessCount2() + 1);
+                    break;
+                case 3:
+                    setGuessCount3(getGuessCount3() + 1);
+                    break;
+                case 4:
+                    setGuessCount4(getGuessCount4() + 1);
+                    break;
+                case 5:
+                    setGuessCount5(getGuessCount5() + 1);
+                    break;
+                case 6:
+                    setGuessCount6(getGuessCount6() + 1);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Records a daily word that was started but never finished as a loss.
+     *
+     * @param day The day of the abandoned daily word
+     */
+    public void recordAbandonedDailyWord(LocalDate day) {
+
+        setLastCompletedDailyWord(day);
+        setDailyGamesPlayed(getDailyGamesPlayed() + 1);
+        setDailyLosses(getDailyLosses() + 1);
+        setDailyCurrentStreak(0);
+    }
+
+    public long getProfileId() {
+
+        return profileId;
+    }
+
+    public void setProfileId(long profileId) {
+
+        this.profileId = profileId;
+    }
+
     public LocalDate getLastCompletedDailyWord() {
 
         return lastCompletedDailyWord.get();
@@ -334,7 +420,8 @@ public class Stats {
     @Override
     public String toString() {
 
-        return "Stats{" + "lastCompletedDailyWord=" + lastCompletedDailyWord +
+        return "Stats{" + "profileId=" + profileId +
+               ", lastCompletedDailyWord=" + lastCompletedDailyWord +
                ", dailyGamesPlayed=" + dailyGamesPlayed +
                ", dailyWins=" + dailyWins +
                ", dailyLosses=" + dailyLosses +
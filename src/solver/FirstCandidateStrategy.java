@@ -0,0 +1,20 @@
+package solver;
+
+/**
+ * Always plays the first candidate in word list order. The baseline every other strategy should beat.
+ */
+public class FirstCandidateStrategy implements Strategy {
+
+    @Override
+    public String getName() {
+
+        return "first-candidate";
+    }
+
+    @Override
+    public int chooseGuess(int[] candidates, int candidateCount, int turn) {
+
+        return candidates[0];
+    }
+
+}
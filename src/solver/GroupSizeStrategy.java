@@ -0,0 +1,81 @@
+package solver;
+
+import util.WordUtil;
+
+import java.util.Arrays;
+
+/**
+ * Plays the guess that splits the candidates into the smallest groups, by the same measure as {@link HintEngine}: the
+ * lowest sum of squared group sizes. Guesses are drawn either from the candidates alone (hard-mode style) or from a
+ * fixed pool such as the whole dictionary.
+ * <p>
+ * Every game starts from the same candidates, so the opening guess is worked out once in {@link #prepare(int[])} and
+ * then reused.
+ */
+public class GroupSizeStrategy implements Strategy {
+
+    private final String name;
+    private final int[] guessPool;
+    private int openingGuess = -1;
+
+    /**
+     * @param name      The name the strategy is reported under
+     * @param guessPool The packed words to choose guesses from, or null to choose among the candidates
+     */
+    public GroupSizeStrategy(String name, int[] guessPool) {
+
+        this.name = name;
+        this.guessPool = guessPool;
+    }
+
+    @Override
+    public String getName() {
+
+        return name;
+    }
+
+    @Override
+    public void prepare(int[] secrets) {
+
+        openingGuess = findBest(secrets, secrets.length);
+    }
+
+    @Override
+    public int chooseGuess(int[] candidates, int candidateCount, int turn) {
+
+        if (candidateCount <= 2) {
+            return candidates[0];
+        }
+        // Unprepared, every game searches for the opening itself
+        if (turn == 0 && openingGuess != -1) {
+            return openingGuess;
+        }
+        return findBest(candidates, candidateCount);
+    }
+
+    private int findBest(int[] candidates, int candidateCount) {
+
+        int[] pool = guessPool == null ? candidates : guessPool;
+        int poolSize = guessPool == null ? candidateCount : guessPool.length;
+        int[] sizes = new int[WordUtil.PATTERN_COUNT];
+
+        int best = candidates[0];
+        long bestScore = Long.MAX_VALUE;
+        for (int g = 0; g < poolSize; g++) {
+            int guess = pool[g];
+
+            Arrays.fill(sizes, 0);
+            long score = 0;
+            for (int c = 0; c < candidateCount && score < bestScore; c++) {
+                // Adding one to a group of n grows the sum of squares by 2n + 1
+                score += 2L * sizes[WordUtil.scoreGuess(guess, candidates[c])]++ + 1;
+            }
+            if (score < bestScore) {
+                bestScore = score;
+                best = guess;
+            }
+        }
+        return best;
+    }
+
+}
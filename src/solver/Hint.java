@@ -0,0 +1,66 @@
+package solver;
+
+/**
+ * A suggested next guess, as found by {@link HintEngine}. While the engine is still refining its answer, it publishes
+ * hints with {@link #isComplete()} false; each one is at least as good as the one before.
+ */
+public class Hint {
+
+    private final String word;
+    private final int candidateCount;
+    private final double expectedRemaining;
+    private final int guessesEvaluated;
+    private final int guessesTotal;
+
+    public Hint(String word, int candidateCount, double expectedRemaining, int guessesEvaluated, int guessesTotal) {
+
+        this.word = word;
+        this.candidateCount = candidateCount;
+        this.expectedRemaining = expectedRemaining;
+        this.guessesEvaluated = guessesEvaluated;
+        this.guessesTotal = guessesTotal;
+    }
+
+    /**
+     * @return The suggested guess, uppercase
+     */
+    public String getWord() {
+
+        return word;
+    }
+
+    /**
+     * @return The number of secret words still consistent with the board
+     */
+    public int getCandidateCount() {
+
+        return candidateCount;
+    }
+
+    /**
+     * @return The average number of candidates left after playing the suggested guess
+     */
+    public double getExpectedRemaining() {
+
+        return expectedRemaining;
+    }
+
+    public int getGuessesEvaluated() {
+
+        return guessesEvaluated;
+    }
+
+    public int getGuessesTotal() {
+
+        return guessesTotal;
+    }
+
+    /**
+     * @return True once every possible guess has been considered
+     */
+    public boolean isComplete() {
+
+        return guessesEvaluated >= guessesTotal;
+    }
+
+}
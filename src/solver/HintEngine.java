@@ -0,0 +1,398 @@
+package solver;
+
+import datasource.OpeningBookDatasource;
+import util.BatchScorer;
+import util.DictionaryPack;
+import util.PatternIndex;
+import util.WordQuery;
+import util.WordUtil;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Suggests the next guess for a board. The secret words still consistent with the board are looked up in the word
+ * list's {@link PatternIndex}, every dictionary word is tried as a guess against them, and the guess that splits them
+ * into the smallest groups (the lowest sum of squared group sizes, i.e. the fewest candidates left on average) wins.
+ * <p>
+ * Guesses are evaluated in slices on a shared pool that leaves one core free for the FX thread. The candidates
+ * themselves go first, since they are the likeliest good answers, and the best guess so far is published after every
+ * slice, so callers get a usable hint quickly and a better one the longer they wait.
+ * <p>
+ * The first two guesses, which are searched against the whole word list, come from an {@link OpeningBook} once it is
+ * loaded. The book is built for the opening named by the {@code workle.opening} system property, or for the best
+ * opening if none is named, and is rebuilt whenever the word tables change.
+ */
+public class HintEngine {
+
+    /** Number of guesses evaluated between two progress updates **/
+    private static final int SLICE_SIZE = 2048;
+
+    private static final ForkJoinPool workers = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("hint-worker-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }, null, false);
+
+    /** Per-thread scratch array for the group sizes of one guess **/
+    private static final ThreadLocal<int[]> groupSizes =
+            ThreadLocal.withInitial(() -> new int[WordUtil.PATTERN_COUNT]);
+
+    /** Per-thread scratch array for the patterns of one guess against every candidate **/
+    private final ThreadLocal<int[]> candidatePatterns;
+
+    private final DictionaryPack pack;
+    private final String language;
+    private final int[] secretWords;
+    private final int[] guessWords;
+
+    /** The opening book, loaded or built on first use **/
+    private CompletableFuture<OpeningBook> openingBook;
+
+    /**
+     * @param pack The dictionary pack to draw guesses (the dictionary) and secrets (the word list) from
+     */
+    public HintEngine(DictionaryPack pack) {
+
+        this.pack = pack;
+        this.language = pack.getLanguage();
+        this.secretWords = packAll(pack.getWordList());
+        this.guessWords = packAll(pack.getDictionary());
+        this.candidatePatterns = ThreadLocal.withInitial(() -> new int[secretWords.length]);
+    }
+
+    /**
+     * Finds the best next guess for a board.
+     *
+     * @param playedGuesses  The packed guesses already on the board
+     * @param playedPatterns The pattern code each of those guesses was scored with
+     * @param played         The number of guesses on the board
+     * @param progress       Receives each improved hint while the search is running
+     * @param cancelled      Polled while searching; the search stops with a CancellationException once it is true
+     * @return The best hint, or null if no secret word is consistent with the board
+     */
+    public Hint findHint(int[] playedGuesses, int[] playedPatterns, int played,
+                         Consumer<Hint> progress, BooleanSupplier cancelled) {
+
+        // **********************************************************************************************
+        // Narrow the word list down to the secrets that would have produced exactly this board. The
+        // index is asked for on every hint, since the pack maps it again if it was released meanwhile.
+        // **********************************************************************************************
+        WordQuery query = toQuery(playedGuesses, playedPatterns, played);
+        List<String> matches = query == null ? List.of() : pack.getWordListIndex().find(query);
+        int[] candidates = new int[matches.size()];
+        int candidateCount = 0;
+        for (String match : matches) {
+            candidates[candidateCount++] = WordUtil.packWord(match);
+        }
+        if (candidateCount == 0) {
+            return null;
+        }
+        if (candidateCount <= 2) {
+            Hint hint = new Hint(WordUtil.unpackWord(candidates[0]), candidateCount, (candidateCount - 1) / 2.0, 1, 1);
+            progress.accept(hint);
+            return hint;
+        }
+        final int[] remaining = Arrays.copyOf(candidates, candidateCount);
+        final int remainingCount = candidateCount;
+
+        // **********************************************************************************************
+        // The opening and the reply to it come straight from the book, if it is ready
+        // **********************************************************************************************
+        OpeningBook book = getOpeningBook().getNow(null);
+        if (book != null && played <= 1) {
+            int guess = OpeningBook.NO_FOLLOW_UP;
+            long score = 0;
+            if (played == 0) {
+                guess = book.getOpening();
+                score = book.getOpeningScore();
+            } else if (playedGuesses[0] == book.getOpening()) {
+                guess = book.getFollowUp(playedPatterns[0]);
+                score = book.getScore(playedPatterns[0]);
+            }
+            if (guess != OpeningBook.NO_FOLLOW_UP) {
+                Hint hint = new Hint(WordUtil.unpackWord(guess), remainingCount, (double) score / remainingCount, 1, 1);
+                progress.accept(hint);
+                return hint;
+            }
+        }
+
+        Scored best = search(remaining, cancelled, (sliceBest, evaluated, total) ->
+                progress.accept(new Hint(WordUtil.unpackWord(sliceBest.guess), remainingCount,
+                                         (double) sliceBest.score / remainingCount, evaluated, total)));
+
+        return new Hint(WordUtil.unpackWord(best.guess), remainingCount,
+                        (double) best.score / remainingCount, best.total, best.total);
+    }
+
+    /**
+     * Turns a board into the constraints it puts on the secret word. With the rules of
+     * {@link WordUtil#checkGuess(String, String)}, a word is consistent with the board exactly when it matches them:
+     * <ul>
+     *     <li>a CORRECT letter is at its position, and any other guessed letter is not at its position;</li>
+     *     <li>a letter the guess has elsewhere too is marked PRESENT there if the word holds more of it than the guess
+     *     has CORRECT, and ABSENT if it holds no more.</li>
+     * </ul>
+     *
+     * @return The query, or null if no word can satisfy the board (two guesses fix different letters at a position)
+     */
+    private static WordQuery toQuery(int[] playedGuesses, int[] playedPatterns, int played) {
+
+        WordQuery query = new WordQuery();
+        char[] fixed = "?".repeat(WordUtil.WORD_LENGTH).toCharArray();
+        int[] correct = new int[26];
+
+        for (int g = 0; g < played; g++) {
+            String guess = WordUtil.unpackWord(playedGuesses[g]);
+            Arrays.fill(correct, 0);
+            int present = 0;
+            int absent = 0;
+
+            int pattern = playedPatterns[g];
+            for (int i = 0; i < WordUtil.WORD_LENGTH; i++, pattern /= 3) {
+                char letter = guess.charAt(i);
+                int state = pattern % 3;
+                if (state == 2) {
+                    if (fixed[i] != '?' && fixed[i] != letter) {
+                        return null;
+                    }
+                    fixed[i] = letter;
+                    correct[letter - 'A']++;
+                } else {
+                    query.excludeAt(i, letter);
+                    if (state == 1) {
+                        present |= 1 << (letter - 'A');
+                    } else {
+                        absent |= 1 << (letter - 'A');
+                    }
+                }
+            }
+
+            for (int letter = 0; letter < correct.length; letter++) {
+                if ((present & (1 << letter)) != 0) {
+                    query.minCount((char) ('A' + letter), correct[letter] + 1);
+                }
+                if ((absent & (1 << letter)) != 0) {
+                    query.maxCount((char) ('A' + letter), correct[letter]);
+                }
+            }
+        }
+        return query.pattern(new String(fixed));
+    }
+
+    /**
+     * Loads the opening book, starting on first call. A book that is missing or was built for other word tables is
+     * built again, on the hint worker pool, and saved.
+     *
+     * @return The book once it is available
+     */
+    public synchronized CompletableFuture<OpeningBook> getOpeningBook() {
+
+        if (openingBook == null) {
+            openingBook = CompletableFuture.supplyAsync(this::loadOpeningBook, workers);
+        }
+        return openingBook;
+    }
+
+    private OpeningBook loadOpeningBook() {
+
+        String openingWord = System.getProperty("workle.opening");
+        int configuredOpening = -1;
+        if (openingWord != null) {
+            openingWord = openingWord.trim().toUpperCase();
+            int packed = openingWord.length() == WordUtil.WORD_LENGTH && openingWord.chars().allMatch(
+                    c -> c >= 'A' && c <= 'Z') ? WordUtil.packWord(openingWord) : -1;
+            if (packed != -1 && Arrays.stream(guessWords).anyMatch(word -> word == packed)) {
+                configuredOpening = packed;
+            } else {
+                System.err.println("Ignoring opening " + openingWord + ", which is not in the dictionary");
+            }
+        }
+
+        long key = OpeningBook.computeKey(secretWords, guessWords, configuredOpening);
+        OpeningBook book = OpeningBookDatasource.load(language, key);
+        if (book == null) {
+            book = buildOpeningBook(key, configuredOpening);
+            OpeningBookDatasource.write(language, book);
+        }
+        return book;
+    }
+
+    /**
+     * Searches for the opening, if none was configured, and then for the best reply to each of its patterns.
+     */
+    private OpeningBook buildOpeningBook(long key, int configuredOpening) {
+
+        BooleanSupplier never = () -> false;
+        SliceListener ignore = (best, evaluated, total) -> {
+        };
+
+        int opening = configuredOpening != -1 ? configuredOpening : search(secretWords, never, ignore).guess;
+        int[] sizes = new int[WordUtil.PATTERN_COUNT];
+        for (int secret : secretWords) {
+            sizes[WordUtil.scoreGuess(opening, secret)]++;
+        }
+        long openingScore = 0;
+        for (int size : sizes) {
+            openingScore += (long) size * size;
+        }
+
+        // **********************************************************************************************
+        // Reply to every pattern; each search fans out over the worker pool
+        // **********************************************************************************************
+        int[] followUps = new int[WordUtil.PATTERN_COUNT];
+        long[] scores = new long[WordUtil.PATTERN_COUNT];
+        for (int pattern = 0; pattern < WordUtil.PATTERN_COUNT; pattern++) {
+            final int p = pattern;
+            int[] group = Arrays.stream(secretWords).filter(secret -> WordUtil.scoreGuess(opening, secret) == p)
+                                .toArray();
+            if (group.length == 0) {
+                followUps[pattern] = OpeningBook.NO_FOLLOW_UP;
+            } else if (group.length <= 2) {
+                // Same reply as findHint gives for so few candidates
+                followUps[pattern] = group[0];
+                scores[pattern] = group.length;
+            } else {
+                Scored best = search(group, never, ignore);
+                followUps[pattern] = best.guess;
+                scores[pattern] = best.score;
+            }
+        }
+
+        return new OpeningBook(key, opening, openingScore, followUps, scores);
+    }
+
+    /**
+     * Tries the candidates first, then every other dictionary word, one slice at a time on the worker pool.
+     *
+     * @param remaining The secret words consistent with the board (at least one)
+     * @param cancelled Polled while searching; the search stops with a CancellationException once it is true
+     * @param listener  Told about the best guess so far after every slice
+     * @return The best guess
+     */
+    private Scored search(int[] remaining, BooleanSupplier cancelled, SliceListener listener) {
+
+        final int remainingCount = remaining.length;
+        int[] sortedCandidates = remaining.clone();
+        Arrays.sort(sortedCandidates);
+        int[] order = new int[remainingCount + guessWords.length];
+        System.arraycopy(remaining, 0, order, 0, remainingCount);
+        int total = remainingCount;
+        for (int guess : guessWords) {
+            if (Arrays.binarySearch(sortedCandidates, guess) < 0) {
+                order[total++] = guess;
+            }
+        }
+        final int[] guessOrder = order;
+        final BatchScorer scorer = BatchScorer.create(remaining, remainingCount);
+
+        Scored best = null;
+        for (int from = 0; from < total; ) {
+            final int sliceStart = from;
+            final int sliceEnd = Math.min(total, from + SLICE_SIZE);
+
+            Scored sliceBest = workers.submit(() -> IntStream.range(sliceStart, sliceEnd).parallel()
+                    .mapToObj(i -> evaluate(guessOrder[i], i, i < remainingCount, scorer, cancelled))
+                    .filter(Objects::nonNull)
+                    .reduce(Scored::better)
+                    .orElse(null)).join();
+
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            best = best == null ? sliceBest : sliceBest == null ? best : best.better(sliceBest);
+            from = sliceEnd;
+
+            listener.sliceDone(best, from, total);
+        }
+
+        best.total = total;
+        return best;
+    }
+
+    /**
+     * @return The guess with its sum of squared group sizes, or null if the search was cancelled
+     */
+    private Scored evaluate(int guess, int order, boolean candidate, BatchScorer scorer, BooleanSupplier cancelled) {
+
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+
+        int[] patterns = candidatePatterns.get();
+        scorer.score(guess, patterns);
+
+        int[] sizes = groupSizes.get();
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < scorer.size(); i++) {
+            sizes[patterns[i]]++;
+        }
+
+        long score = 0;
+        for (int size : sizes) {
+            score += (long) size * size;
+        }
+        return new Scored(guess, order, candidate, score);
+    }
+
+    private static int[] packAll(List<String> words) {
+
+        int[] packed = new int[words.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = WordUtil.packWord(words.get(i));
+        }
+        return packed;
+    }
+
+    private interface SliceListener {
+
+        void sliceDone(Scored best, int evaluated, int total);
+
+    }
+
+    private static class Scored {
+
+        private final int guess;
+        private final int order;
+        private final boolean candidate;
+        private final long score;
+        /** Number of guesses the search considered; set on the final result **/
+        private int total;
+
+        private Scored(int guess, int order, boolean candidate, long score) {
+
+            this.guess = guess;
+            this.order = order;
+            this.candidate = candidate;
+            this.score = score;
+        }
+
+        /**
+         * Lower score wins; on a tie, a guess that could itself be the secret, then the earlier guess.
+         */
+        private Scored better(Scored other) {
+
+            if (score != other.score) {
+                return score < other.score ? this : other;
+            }
+            if (candidate != other.candidate) {
+                return candidate ? this : other;
+            }
+            return order <= other.order ? this : other;
+        }
+
+    }
+
+}
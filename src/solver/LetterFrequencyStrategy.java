@@ -0,0 +1,62 @@
+package solver;
+
+import util.WordUtil;
+
+/**
+ * Plays the candidate whose letters are most common among the candidates, both in place and anywhere in the word.
+ * Repeated letters only count once towards the "anywhere" score, which favours guesses that test more letters.
+ */
+public class LetterFrequencyStrategy implements Strategy {
+
+    @Override
+    public String getName() {
+
+        return "letter-frequency";
+    }
+
+    @Override
+    public int chooseGuess(int[] candidates, int candidateCount, int turn) {
+
+        // **********************************************************************************************
+        // Count how many candidates have each letter at each position, and anywhere in the word
+        // **********************************************************************************************
+        int[] positional = new int[WordUtil.WORD_LENGTH * 32];
+        int[] anywhere = new int[32];
+        for (int c = 0; c < candidateCount; c++) {
+            int word = candidates[c];
+            int seen = 0;
+            for (int i = 0; i < WordUtil.WORD_LENGTH; i++) {
+                int letter = (word >>> (5 * i)) & 31;
+                positional[i * 32 + letter]++;
+                seen |= 1 << letter;
+            }
+            for (int letter = 0; letter < 26; letter++) {
+                if ((seen & (1 << letter)) != 0) {
+                    anywhere[letter]++;
+                }
+            }
+        }
+
+        int best = candidates[0];
+        long bestScore = -1;
+        for (int c = 0; c < candidateCount; c++) {
+            int word = candidates[c];
+            int seen = 0;
+            long score = 0;
+            for (int i = 0; i < WordUtil.WORD_LENGTH; i++) {
+                int letter = (word >>> (5 * i)) & 31;
+                score += positional[i * 32 + letter];
+                if ((seen & (1 << letter)) == 0) {
+                    score += anywhere[letter];
+                    seen |= 1 << letter;
+                }
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = word;
+            }
+        }
+        return best;
+    }
+
+}
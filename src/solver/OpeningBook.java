@@ -0,0 +1,111 @@
+package solver;
+
+import util.WordUtil;
+
+import java.util.Arrays;
+
+/**
+ * The precomputed first guess and, for each of the 243 patterns it can be scored with, the best second guess. The
+ * first two guesses are by far the most expensive to search for, since nothing has narrowed the word list down yet.
+ * <p>
+ * A book is only valid for the word tables and opening it was built from; {@link #computeKey(int[], int[], int)}
+ * condenses those into the key it is stored under. Books are built and loaded by {@link HintEngine}.
+ */
+public class OpeningBook {
+
+    /** Follow-up of a pattern no secret word produces **/
+    public static final int NO_FOLLOW_UP = -1;
+
+    private final long key;
+    private final int opening;
+    private final long openingScore;
+    private final int[] followUps;
+    private final long[] scores;
+
+    /**
+     * @param key          The key of the word tables and opening the book was built for
+     * @param opening      The packed first guess
+     * @param openingScore The sum of squared group sizes of the first guess over the whole word list
+     * @param followUps    The packed best second guess for each pattern, or {@link #NO_FOLLOW_UP}
+     * @param scores       The sum of squared group sizes of each second guess over its pattern's candidates
+     */
+    public OpeningBook(long key, int opening, long openingScore, int[] followUps, long[] scores) {
+
+        if (followUps.length != WordUtil.PATTERN_COUNT || scores.length != WordUtil.PATTERN_COUNT) {
+            throw new IllegalArgumentException("An opening book needs one entry per pattern");
+        }
+        this.key = key;
+        this.opening = opening;
+        this.openingScore = openingScore;
+        this.followUps = Arrays.copyOf(followUps, followUps.length);
+        this.scores = Arrays.copyOf(scores, scores.length);
+    }
+
+    public long getKey() {
+
+        return key;
+    }
+
+    /**
+     * @return The packed first guess
+     */
+    public int getOpening() {
+
+        return opening;
+    }
+
+    public long getOpeningScore() {
+
+        return openingScore;
+    }
+
+    /**
+     * @param pattern The pattern the opening was scored with
+     * @return The packed best second guess, or {@link #NO_FOLLOW_UP} if no secret word gives that pattern
+     */
+    public int getFollowUp(int pattern) {
+
+        return followUps[pattern];
+    }
+
+    /**
+     * @param pattern The pattern the opening was scored with
+     * @return The sum of squared group sizes of the second guess over the candidates left by that pattern
+     */
+    public long getScore(int pattern) {
+
+        return scores[pattern];
+    }
+
+    /**
+     * Hashes (64-bit FNV-1a) everything a book depends on, so that a book built for other word tables is never used.
+     *
+     * @param secrets           The packed word list, in word_id order
+     * @param guesses           The packed dictionary
+     * @param configuredOpening The packed opening the book was asked to use, or -1 if the best opening was searched for
+     * @return The key
+     */
+    public static long computeKey(int[] secrets, int[] guesses, int configuredOpening) {
+
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, secrets.length);
+        for (int word : secrets) {
+            hash = mix(hash, word);
+        }
+        hash = mix(hash, guesses.length);
+        for (int word : guesses) {
+            hash = mix(hash, word);
+        }
+        return mix(hash, configuredOpening);
+    }
+
+    private static long mix(long hash, int value) {
+
+        for (int i = 0; i < 4; i++) {
+            hash ^= (value >>> (8 * i)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,36 @@
+package solver;
+
+/**
+ * A way of choosing the next guess, given the secret words still consistent with the board. Strategies are shared by
+ * every game of a tournament at once, so implementations must be thread-safe.
+ * <p>
+ * Words are packed as by {@link util.WordUtil#packWord(CharSequence)}.
+ */
+public interface Strategy {
+
+    /**
+     * @return The short name the strategy is reported under
+     */
+    String getName();
+
+    /**
+     * Does any work that every game would otherwise repeat, before the first game starts. Called once, from a single
+     * thread.
+     *
+     * @param secrets The packed secret words every game starts from
+     */
+    default void prepare(int[] secrets) {
+
+    }
+
+    /**
+     * Chooses the next guess.
+     *
+     * @param candidates     The packed secret words still consistent with the board; must not be modified
+     * @param candidateCount The number of candidates, from the start of the array (at least one)
+     * @param turn           The zero-based number of the guess being chosen
+     * @return The packed guess
+     */
+    int chooseGuess(int[] candidates, int candidateCount, int turn);
+
+}
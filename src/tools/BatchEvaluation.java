@@ -0,0 +1,321 @@
+package tools;
+
+import model.TileState;
+import util.WordUtil;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scores guesses against secret words in bulk, with the rules of {@link WordUtil#checkGuess(String, String)}, and
+ * streams one result per input line.
+ *
+ * <pre>
+ * java tools.BatchEvaluation [options]
+ *
+ *   --input=&lt;file&gt;     read from a file instead of stdin
+ *   --secret=&lt;word&gt;    every line is a guess against this secret (default: every line is "GUESS SECRET")
+ *   --format=&lt;format&gt;  emoji    the share grid row, e.g. 🟩⬛🟨⬛⬛ (default)
+ *                      digits   one digit per letter: 0 absent, 1 present, 2 correct
+ *                      packed   one byte per line, the pattern code of WordUtil.scoreGuess
+ *   --threads=&lt;n&gt;      scoring threads (default: one per core)
+ * </pre>
+ * <p>
+ * Guess and secret may be separated by spaces, tabs, commas or semicolons; letters may be in either case. Blank lines
+ * are skipped. A line that does not hold 5-letter words gives a {@code ?} line (byte 255 in the packed format), so the
+ * output stays aligned with the input.
+ * <p>
+ * The input is read through a channel in large chunks, cut at the last line break. Chunks are parsed and scored as raw
+ * bytes on a thread pool, without creating a String per line, and written out in input order, so throughput is bound
+ * by the disk rather than by the scoring.
+ */
+public class BatchEvaluation {
+
+    private static final int CHUNK_SIZE = 4 << 20;
+
+    /** Written for a line that can't be scored, in the packed format **/
+    private static final byte MALFORMED_PACKED = (byte) 0xFF;
+
+    private static final byte[] MALFORMED_LINE = "?\n".getBytes(StandardCharsets.US_ASCII);
+
+    private enum Format {EMOJI, DIGITS, PACKED}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        String inputFile = null;
+        int secret = -1;
+        Format format = Format.EMOJI;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--input=")) {
+                    inputFile = arg.substring("--input=".length());
+                } else if (arg.startsWith("--secret=")) {
+                    byte[] word = arg.substring("--secret=".length()).getBytes(StandardCharsets.US_ASCII);
+                    secret = parseWord(word, 0, word.length);
+                    if (secret < 0) {
+                        throw new IllegalArgumentException("Not a 5-letter word: " + arg);
+                    }
+                } else if (arg.startsWith("--format=")) {
+                    format = Format.valueOf(arg.substring("--format=".length()).toUpperCase(Locale.ROOT));
+                } else if (arg.startsWith("--threads=")) {
+                    threads = Math.max(1, Integer.parseInt(arg.substring("--threads=".length())));
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.BatchEvaluation [--input=<file>] [--secret=<word>]"
+                               + " [--format=emoji|digits|packed] [--threads=<n>]");
+            System.exit(2);
+        }
+
+        long started = System.nanoTime();
+        byte[][] results = buildResultTable(format);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-scorer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+        long lines = 0;
+        long malformed = 0;
+
+        try (ReadableByteChannel in = inputFile != null
+                ? FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ)
+                : Channels.newChannel(new FileInputStream(FileDescriptor.in));
+             WritableByteChannel out = Channels.newChannel(new FileOutputStream(FileDescriptor.out))) {
+
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int filled = 0;
+            boolean eof = false;
+
+            while (!eof) {
+                // **********************************************************************************************
+                // Fill the buffer, then hand everything up to the last line break to the pool. The partial
+                // line after it starts the next buffer.
+                // **********************************************************************************************
+                while (filled < buffer.length) {
+                    int read = in.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                    if (read < 0) {
+                        eof = true;
+                        break;
+                    }
+                    filled += read;
+                }
+
+                int end = eof ? filled : lastLineBreak(buffer, filled) + 1;
+                if (end == 0 && !eof) {
+                    // A single line longer than the buffer; read on until it ends
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+
+                if (end > 0) {
+                    final byte[] chunk = buffer;
+                    final int chunkEnd = end;
+                    final int chunkSecret = secret;
+                    final Format chunkFormat = format;
+                    pending.add(pool.submit(() -> score(chunk, chunkEnd, chunkSecret, chunkFormat, results)));
+
+                    byte[] next = new byte[Math.max(CHUNK_SIZE, filled - end)];
+                    System.arraycopy(buffer, end, next, 0, filled - end);
+                    filled -= end;
+                    buffer = next;
+                }
+
+                // **********************************************************************************************
+                // Write finished chunks in input order; keep only a few in flight to bound memory
+                // **********************************************************************************************
+                while (!pending.isEmpty() && (pending.size() > 2 * threads || pending.peek().isDone() || eof)) {
+                    Chunk done = pending.remove().get();
+                    while (done.output.hasRemaining()) {
+                        out.write(done.output);
+                    }
+                    lines += done.lines;
+                    malformed += done.malformed;
+                }
+            }
+        } catch (ExecutionException e) {
+            System.err.println(e.getCause().getClass().getName() + ": " + e.getCause().getMessage());
+            System.exit(1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.err.printf("Scored %,d lines (%,d malformed) in %,d ms%n",
+                          lines, malformed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Parses and scores every line of a chunk.
+     *
+     * @param chunk   The input bytes, ending with a complete line
+     * @param end     The number of bytes in the chunk
+     * @param secret  The packed secret for every line, or -1 if every line holds its own
+     * @param format  The output format
+     * @param results The output bytes for every pattern code
+     */
+    private static Chunk score(byte[] chunk, int end, int secret, Format format, byte[][] results) {
+
+        byte[] output = new byte[format == Format.PACKED ? end / 2 + 16 : end * 4 + 64];
+        int written = 0;
+        long lines = 0;
+        long malformed = 0;
+
+        int lineStart = 0;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && chunk[lineEnd] != '\n') {
+                lineEnd++;
+            }
+
+            // **********************************************************************************************
+            // Trim the line, skip it if blank, then split it into guess and secret
+            // **********************************************************************************************
+            int from = skipSeparators(chunk, lineStart, lineEnd);
+            int to = lineEnd;
+            while (to > from && isSeparator(chunk[to - 1])) {
+                to--;
+            }
+
+            if (from < to) {
+                int pattern = -1;
+                int guessEnd = from;
+                while (guessEnd < to && !isSeparator(chunk[guessEnd])) {
+                    guessEnd++;
+                }
+                int guess = parseWord(chunk, from, guessEnd);
+                int lineSecret = secret;
+                if (secret < 0) {
+                    lineSecret = guessEnd < to ? parseWord(chunk, skipSeparators(chunk, guessEnd, to), to) : -1;
+                } else if (guessEnd != to) {
+                    guess = -1;
+                }
+                if (guess >= 0 && lineSecret >= 0) {
+                    pattern = WordUtil.scoreGuess(guess, lineSecret);
+                }
+
+                byte[] result;
+                if (pattern >= 0) {
+                    result = results[pattern];
+                } else {
+                    result = format == Format.PACKED ? new byte[]{MALFORMED_PACKED} : MALFORMED_LINE;
+                    malformed++;
+                }
+                if (written + result.length > output.length) {
+                    output = Arrays.copyOf(output, Math.max(output.length * 2, written + result.length));
+                }
+                System.arraycopy(result, 0, output, written, result.length);
+                written += result.length;
+                lines++;
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        return new Chunk(ByteBuffer.wrap(output, 0, written), lines, malformed);
+    }
+
+    /**
+     * @return The packed word, or -1 if the bytes are not exactly 5 ASCII letters
+     */
+    private static int parseWord(byte[] bytes, int from, int to) {
+
+        if (to - from != WordUtil.WORD_LENGTH) {
+            return -1;
+        }
+        int packed = 0;
+        for (int i = 0; i < WordUtil.WORD_LENGTH; i++) {
+            int letter = (bytes[from + i] | 0x20) - 'a';
+            if (letter < 0 || letter >= 26) {
+                return -1;
+            }
+            packed |= letter << (5 * i);
+        }
+        return packed;
+    }
+
+    private static boolean isSeparator(byte b) {
+
+        return b == ' ' || b == '\t' || b == ',' || b == ';' || b == '\r';
+    }
+
+    private static int skipSeparators(byte[] bytes, int from, int to) {
+
+        while (from < to && isSeparator(bytes[from])) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int lastLineBreak(byte[] bytes, int length) {
+
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Encodes the output line for every pattern code once, so that writing a result is a single copy.
+     */
+    private static byte[][] buildResultTable(Format format) {
+
+        byte[][] results = new byte[WordUtil.PATTERN_COUNT][];
+        for (int pattern = 0; pattern < WordUtil.PATTERN_COUNT; pattern++) {
+            if (format == Format.PACKED) {
+                results[pattern] = new byte[]{(byte) pattern};
+                continue;
+            }
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < WordUtil.WORD_LENGTH; i++) {
+                TileState state = WordUtil.getTileState(pattern, i);
+                if (format == Format.EMOJI) {
+                    line.appendCodePoint(state.getCodepoint());
+                } else {
+                    line.append(state == TileState.CORRECT ? '2' : state == TileState.PRESENT ? '1' : '0');
+                }
+            }
+            results[pattern] = line.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return results;
+    }
+
+    private static class Chunk {
+
+        private final ByteBuffer output;
+        private final long lines;
+        private final long malformed;
+
+        private Chunk(ByteBuffer output, long lines, long malformed) {
+
+            this.output = output;
+            this.lines = lines;
+            this.malformed = malformed;
+        }
+
+    }
+
+}
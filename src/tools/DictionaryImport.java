@@ -0,0 +1,256 @@
+package tools;
+
+import datasource.WordsDatasource;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a word-list file into the word tables of workle.dat.
+ *
+ * <pre>
+ * java tools.DictionaryImport [options] &lt;file|-&gt;
+ *
+ *   --db=&lt;path&gt;          database to import into (default workle.dat)
+ *   --table=&lt;name&gt;       dictionary (default) or word_list; words added to word_list are added to dictionary too
+ *   --length=&lt;n&gt;         only import words of this many letters (default 5)
+ *   --batch=&lt;n&gt;          rows per transaction (default 50000)
+ * </pre>
+ *
+ * Each line holds a word, optionally followed by whitespace or a comma and a frequency weight, which is stored in the
+ * word_list weight column. Files ending in .gz are decompressed on the fly; "-" reads standard input. Words are
+ * trimmed and lowercased, and anything that is not made up of exactly the requested number of letters a-z is skipped.
+ * Duplicates are dropped by the tables' unique keys rather than by an in-memory set, so memory use does not depend on
+ * the size of the input.
+ */
+public class DictionaryImport {
+
+    private static final long PROGRESS_INTERVAL_NANOS = 1_000_000_000L;
+
+    private String database = "workle.dat";
+    private String table = "dictionary";
+    private int wordLength = 5;
+    private int batchSize = 50_000;
+    private String input;
+
+    private long linesRead;
+    private long wordsAccepted;
+    private long rowsInserted;
+
+    public static void main(String[] args) {
+
+        DictionaryImport dictionaryImport = new DictionaryImport();
+        if (!dictionaryImport.parseArguments(args)) {
+            System.err.println("Usage: java tools.DictionaryImport [--db=workle.dat] [--table=dictionary|word_list]"
+                               + " [--length=5] [--batch=50000] <file|->");
+            System.exit(2);
+        }
+
+        try {
+            dictionaryImport.run();
+        } catch (IOException | SQLException e) {
+            System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private boolean parseArguments(String[] args) {
+
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--db=")) {
+                    database = arg.substring("--db=".length());
+                } else if (arg.startsWith("--table=")) {
+                    table = arg.substring("--table=".length()).toLowerCase(Locale.ROOT);
+                } else if (arg.startsWith("--length=")) {
+                    wordLength = Integer.parseInt(arg.substring("--length=".length()));
+                } else if (arg.startsWith("--batch=")) {
+                    batchSize = Integer.parseInt(arg.substring("--batch=".length()));
+                } else if (input == null && !arg.startsWith("--")) {
+                    input = arg;
+                } else {
+                    return false;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        return input != null && wordLength > 0 && batchSize > 0
+               && (table.equals("dictionary") || table.equals("word_list"));
+    }
+
+    private void run() throws IOException, SQLException {
+
+        final boolean intoWordList = table.equals("word_list");
+
+        try (BufferedReader reader = openInput();
+             Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+
+            // **********************************************************************************************
+            // Weights live in an optional column; add it the first time a weighted word list is imported
+            // **********************************************************************************************
+            if (intoWordList && !WordsDatasource.hasColumn(connection, "word_list", "weight")) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("alter table word_list add column weight real;");
+                }
+            }
+
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement dictionaryInsert = connection.prepareStatement(
+                    "insert or ignore into dictionary (word) values (?);");
+                 PreparedStatement wordListInsert = intoWordList ? connection.prepareStatement(
+                         "insert into word_list (word, weight) values (?, ?)\n" +
+                         "on conflict (word) do update set weight = coalesce(excluded.weight, weight);") : null) {
+
+                long started = System.nanoTime();
+                long lastReport = started;
+                int pending = 0;
+
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    linesRead++;
+
+                    // **********************************************************************************************
+                    // Normalize the line into a word and an optional weight
+                    // **********************************************************************************************
+                    String word = normalize(line);
+                    if (word == null) {
+                        continue;
+                    }
+                    wordsAccepted++;
+
+                    dictionaryInsert.setString(1, word);
+                    dictionaryInsert.addBatch();
+                    if (wordListInsert != null) {
+                        wordListInsert.setString(1, word);
+                        Double weight = parseWeight(line);
+                        if (weight == null) {
+                            wordListInsert.setNull(2, Types.REAL);
+                        } else {
+                            wordListInsert.setDouble(2, weight);
+                        }
+                        wordListInsert.addBatch();
+                    }
+
+                    // **********************************************************************************************
+                    // Write a chunk in one transaction, then report progress at most once a second
+                    // **********************************************************************************************
+                    if (++pending == batchSize) {
+                        flush(connection, dictionaryInsert, wordListInsert);
+                        pending = 0;
+
+                        long now = System.nanoTime();
+                        if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                            reportProgress(started, now);
+                            lastReport = now;
+                        }
+                    }
+                }
+
+                if (pending > 0) {
+                    flush(connection, dictionaryInsert, wordListInsert);
+                }
+                reportProgress(started, System.nanoTime());
+            }
+        }
+    }
+
+    private BufferedReader openInput() throws IOException {
+
+        InputStream stream;
+        if (input.equals("-")) {
+            stream = System.in;
+        } else {
+            Path path = Paths.get(input);
+            stream = Files.newInputStream(path);
+            if (input.toLowerCase(Locale.ROOT).endsWith(".gz")) {
+                stream = new GZIPInputStream(stream, 1 << 16);
+            }
+        }
+        return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * @param line A line of the input file
+     * @return The lowercase word at the start of the line, or null if it is not a word of the requested length
+     */
+    private String normalize(String line) {
+
+        int start = 0;
+        int end = line.length();
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        int wordEnd = start;
+        while (wordEnd < end && !Character.isWhitespace(line.charAt(wordEnd)) && line.charAt(wordEnd) != ',') {
+            wordEnd++;
+        }
+        if (wordEnd - start != wordLength) {
+            return null;
+        }
+
+        char[] letters = new char[wordLength];
+        for (int i = 0; i < wordLength; i++) {
+            char letter = Character.toLowerCase(line.charAt(start + i));
+            if (letter < 'a' || letter > 'z') {
+                return null;
+            }
+            letters[i] = letter;
+        }
+        return new String(letters);
+    }
+
+    /**
+     * @param line A line of the input file
+     * @return The weight following the word, or null if there is none
+     */
+    private static Double parseWeight(String line) {
+
+        String[] fields = line.trim().split("[\\s,]+", 3);
+        if (fields.length < 2) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(fields[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void flush(Connection connection, PreparedStatement dictionaryInsert, PreparedStatement wordListInsert)
+            throws SQLException {
+
+        rowsInserted += countInserted(dictionaryInsert.executeBatch());
+        if (wordListInsert != null) {
+            wordListInsert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private static long countInserted(int[] updateCounts) {
+
+        long inserted = 0;
+        for (int count : updateCounts) {
+            if (count > 0) {
+                inserted += count;
+            }
+        }
+        return inserted;
+    }
+
+    private void reportProgress(long started, long now) {
+
+        double seconds = Math.max(1e-9, (now - started) / 1e9);
+        System.err.printf("%,d lines read, %,d words accepted, %,d new dictionary rows, %,.0f rows/s%n",
+                          linesRead, wordsAccepted, rowsInserted, wordsAccepted / seconds);
+    }
+
+}
@@ -0,0 +1,295 @@
+package tools;
+
+import model.KeyboardState;
+import model.TileState;
+import util.BatchScorer;
+import util.DictionaryPack;
+import util.WordUtil;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Checks every dictionary word against every word of the word list through the reference scoring methods
+ * ({@link WordUtil#checkGuess(String, String)} and {@link WordUtil#getKeyboardTileStates(String, String)}) and through
+ * the packed ones built to match them, then prints the mismatches and a throughput table.
+ *
+ * <pre>
+ * java [--add-modules jdk.incubator.vector] tools.ScorerVerifier [--max-report=&lt;n&gt;]
+ *
+ *   --max-report=&lt;n&gt;  mismatches to print in full (default 20); all of them are counted
+ * </pre>
+ * <p>
+ * Guesses are spread over all cores. Every implementation scores the same guess against the whole word list in one
+ * run timed with the thread's CPU time, so the table shows the CPU time each one spent on all pairs, and its
+ * throughput per core. The first guesses serve as a warm-up and are left out of the table. Exits with status 1 if
+ * anything did not match.
+ */
+public class ScorerVerifier {
+
+    private static final int DEFAULT_MAX_REPORT = 20;
+
+    /** Guesses verified before the timing starts, so that every implementation is compiled by then **/
+    private static final int WARM_UP_GUESSES = 2000;
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private static final String TABLE_FORMAT = "%-28s %,14d %,10d %10.1f %12.1f %9.1fx%n";
+
+    public static void main(String[] args) {
+
+        int maxReport = DEFAULT_MAX_REPORT;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--max-report=")) {
+                    maxReport = Integer.parseInt(arg.substring("--max-report=".length()));
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.ScorerVerifier [--max-report=<n>]");
+            System.exit(2);
+        }
+
+        DictionaryPack pack = WordUtil.getDictionaryPack();
+        List<String> guesses = pack.getDictionary();
+        List<String> secrets = pack.getWordList();
+        new ScorerVerifier(guesses, secrets, maxReport).run();
+    }
+
+    private final List<String> guesses;
+    private final List<String> secrets;
+    private final int[] packedSecrets;
+    private final int maxReport;
+
+    private final List<Implementation> implementations = new ArrayList<>();
+    private final Implementation reference;
+    private final Implementation packed;
+    private final Implementation batchScalar;
+    private final Implementation batchVector;
+    private final Implementation keyboardReference;
+    private final Implementation keyboardPacked;
+
+    private final BatchScorer scalarScorer;
+    private final BatchScorer vectorScorer;
+
+    private final AtomicLong mismatches = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> reported = new ConcurrentLinkedQueue<>();
+
+    private ScorerVerifier(List<String> guesses, List<String> secrets, int maxReport) {
+
+        this.guesses = guesses;
+        this.secrets = secrets;
+        this.maxReport = maxReport;
+        this.packedSecrets = secrets.stream().mapToInt(WordUtil::packWord).toArray();
+
+        this.scalarScorer = BatchScorer.createScalar(packedSecrets, packedSecrets.length);
+        this.vectorScorer = BatchScorer.isVectorAvailable() ? BatchScorer.create(packedSecrets, packedSecrets.length)
+                                                            : null;
+
+        reference = add("WordUtil.checkGuess", null);
+        packed = add("WordUtil.scoreGuess", reference);
+        batchScalar = add("BatchScorer (scalar)", reference);
+        batchVector = vectorScorer != null ? add("BatchScorer (vector)", reference) : null;
+        keyboardReference = add("getKeyboardTileStates+merge", null);
+        keyboardPacked = add("KeyboardState.merge(pattern)", keyboardReference);
+    }
+
+    private Implementation add(String name, Implementation baseline) {
+
+        Implementation implementation = new Implementation(name, baseline);
+        implementations.add(implementation);
+        return implementation;
+    }
+
+    private void run() {
+
+        System.out.printf("Verifying %,d guesses x %,d secrets = %,d pairs on %d cores%s%n",
+                          guesses.size(), secrets.size(), (long) guesses.size() * secrets.size(),
+                          Runtime.getRuntime().availableProcessors(),
+                          vectorScorer == null ? " (vector scorer not available)" : "");
+
+        // **********************************************************************************************
+        // The first guesses are verified like the rest but left out of the timings; the Vector API in
+        // particular is many times slower until the JIT has compiled it
+        // **********************************************************************************************
+        long started = System.nanoTime();
+        int warmUp = Math.min(WARM_UP_GUESSES, guesses.size() / 2);
+        IntStream.range(0, warmUp).parallel().forEach(this::verifyGuess);
+        implementations.forEach(Implementation::reset);
+
+        IntStream.range(warmUp, guesses.size()).parallel().forEach(this::verifyGuess);
+        long wallNanos = System.nanoTime() - started;
+
+        // **********************************************************************************************
+        // Mismatches first, then the throughput table
+        // **********************************************************************************************
+        for (String mismatch : reported) {
+            System.out.println(mismatch);
+        }
+        if (mismatches.get() > reported.size()) {
+            System.out.printf("... and %,d more%n", mismatches.get() - reported.size());
+        }
+        System.out.printf("%,d mismatches; wall time %,d ms%n%n", mismatches.get(), wallNanos / 1_000_000);
+
+        System.out.printf(Locale.ROOT, "%-28s %14s %10s %10s %12s %10s%n",
+                          "implementation", "pairs", "cpu_ms", "ns/pair", "Mpairs/s/core", "speedup");
+        for (Implementation implementation : implementations) {
+            long nanos = implementation.nanos.sum();
+            long pairs = implementation.pairs.sum();
+            long baselineNanos = implementation.baseline != null ? implementation.baseline.nanos.sum() : nanos;
+            System.out.printf(Locale.ROOT, TABLE_FORMAT, implementation.name, pairs, nanos / 1_000_000,
+                              (double) nanos / pairs, pairs * 1e3 / nanos, (double) baselineNanos / nanos);
+        }
+
+        if (mismatches.get() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Scores one guess against every secret through every implementation and compares the results.
+     */
+    private void verifyGuess(int guessIndex) {
+
+        String guess = guesses.get(guessIndex);
+        int packedGuess = WordUtil.packWord(guess);
+        int count = packedSecrets.length;
+        int[] expected = new int[count];
+        int[] actual = new int[count];
+
+        long started = cpuTime();
+        for (int s = 0; s < count; s++) {
+            expected[s] = toPattern(WordUtil.checkGuess(guess, secrets.get(s)));
+        }
+        reference.record(started, count);
+
+        started = cpuTime();
+        for (int s = 0; s < count; s++) {
+            actual[s] = WordUtil.scoreGuess(packedGuess, packedSecrets[s]);
+        }
+        packed.record(started, count);
+        compare(packed, guess, expected, actual);
+
+        started = cpuTime();
+        scalarScorer.score(packedGuess, actual);
+        batchScalar.record(started, count);
+        compare(batchScalar, guess, expected, actual);
+
+        if (vectorScorer != null) {
+            started = cpuTime();
+            vectorScorer.score(packedGuess, actual);
+            batchVector.record(started, count);
+            compare(batchVector, guess, expected, actual);
+        }
+
+        // **********************************************************************************************
+        // The keyboard: the map-based reference against the packed merge, fed the reference pattern so
+        // that only the keyboard rules are compared here
+        // **********************************************************************************************
+        long[] expectedKeys = new long[count];
+        started = cpuTime();
+        for (int s = 0; s < count; s++) {
+            expectedKeys[s] = KeyboardState.merge(KeyboardState.EMPTY,
+                                                  WordUtil.getKeyboardTileStates(guess, secrets.get(s)));
+        }
+        keyboardReference.record(started, count);
+
+        long[] actualKeys = new long[count];
+        started = cpuTime();
+        for (int s = 0; s < count; s++) {
+            actualKeys[s] = KeyboardState.merge(KeyboardState.EMPTY, packedGuess, expected[s]);
+        }
+        keyboardPacked.record(started, count);
+
+        for (int s = 0; s < count; s++) {
+            if (expectedKeys[s] != actualKeys[s]) {
+                report(keyboardPacked, guess, s, Long.toHexString(expectedKeys[s]), Long.toHexString(actualKeys[s]));
+            }
+        }
+    }
+
+    private void compare(Implementation implementation, String guess, int[] expected, int[] actual) {
+
+        for (int s = 0; s < expected.length; s++) {
+            if (expected[s] != actual[s]) {
+                report(implementation, guess, s, toEmoji(expected[s]), toEmoji(actual[s]));
+            }
+        }
+    }
+
+    private void report(Implementation implementation, String guess, int secretIndex, String expected, String actual) {
+
+        if (mismatches.incrementAndGet() <= maxReport) {
+            reported.add(String.format("MISMATCH %s: guess %s, secret %s: expected %s, got %s",
+                                       implementation.name, guess, secrets.get(secretIndex), expected, actual));
+        }
+    }
+
+    /**
+     * @return The CPU time of the current thread, so that threads sharing a core don't inflate each other's timings
+     */
+    private static long cpuTime() {
+
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static int toPattern(TileState[] states) {
+
+        int pattern = 0;
+        for (int i = states.length - 1; i >= 0; i--) {
+            pattern = pattern * 3 + (states[i] == TileState.CORRECT ? 2 : states[i] == TileState.PRESENT ? 1 : 0);
+        }
+        return pattern;
+    }
+
+    private static String toEmoji(int pattern) {
+
+        StringBuilder emoji = new StringBuilder();
+        for (TileState state : WordUtil.getTileStates(pattern)) {
+            emoji.appendCodePoint(state.getCodepoint());
+        }
+        return emoji.toString();
+    }
+
+    /**
+     * One scoring path and the CPU time spent in it across all threads.
+     */
+    private static class Implementation {
+
+        private final String name;
+        /** The implementation this one is checked against and compared with in the table, or null **/
+        private final Implementation baseline;
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder pairs = new LongAdder();
+
+        private Implementation(String name, Implementation baseline) {
+
+            this.name = name;
+            this.baseline = baseline;
+        }
+
+        private void reset() {
+
+            nanos.reset();
+            pairs.reset();
+        }
+
+        private void record(long started, int count) {
+
+            nanos.add(cpuTime() - started);
+            pairs.add(count);
+        }
+
+    }
+
+}
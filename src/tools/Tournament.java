@@ -0,0 +1,287 @@
+package tools;
+
+import solver.FirstCandidateStrategy;
+import solver.GroupSizeStrategy;
+import solver.LetterFrequencyStrategy;
+import solver.Strategy;
+import util.DictionaryPack;
+import util.WordUtil;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays guessing strategies head-to-head against every word of the word list and prints one CSV row per strategy.
+ * Requires Java 21.
+ *
+ * <pre>
+ * java tools.Tournament [options]
+ *
+ *   --strategies=&lt;a,b,...&gt;  strategies to play (default: all of them)
+ *   --budget=&lt;seconds&gt;      time each strategy gets to play all its games (default 60)
+ *   --out=&lt;file&gt;            write the CSV to a file instead of stdout
+ * </pre>
+ * <p>
+ * The strategies play one at a time, and the budget starts when a strategy does. Each of its games is a virtual-thread
+ * task; the games never block, so they spread over all the carrier threads (one per core) and keep every core busy.
+ * Games still waiting when the strategy's budget runs out are counted as timed out rather than played, and games in
+ * which the strategy threw are counted as errors. The CPU time is that of the whole process while the strategy played,
+ * which, with nothing else running, is the strategy's own plus a little JIT and GC work.
+ * <p>
+ * A game counts as a failure when the secret is not found within the six guesses the game allows; it is still played
+ * on, up to {@link #MAX_TURNS} guesses, so the worst case shows how far over a strategy goes.
+ */
+public class Tournament {
+
+    /** Guesses the game allows **/
+    private static final int ALLOWED_GUESSES = 6;
+
+    /** A game still unsolved after this many guesses is abandoned **/
+    private static final int MAX_TURNS = 20;
+
+    private static final String CSV_HEADER =
+            "strategy,games,solved,failures,timed_out,errors,mean_guesses,worst_case,cpu_ms,wall_ms";
+
+    private static final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        List<String> selected = null;
+        long budgetNanos = TimeUnit.SECONDS.toNanos(60);
+        String outFile = null;
+
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--strategies=")) {
+                    selected = List.of(arg.substring("--strategies=".length()).split(","));
+                } else if (arg.startsWith("--budget=")) {
+                    budgetNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(arg.substring("--budget=".length())));
+                } else if (arg.startsWith("--out=")) {
+                    outFile = arg.substring("--out=".length());
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.Tournament [--strategies=a,b] [--budget=<seconds>] [--out=<file>]");
+            System.exit(2);
+        }
+
+        DictionaryPack pack = WordUtil.getDictionaryPack();
+        int[] secrets = packAll(pack.getWordList());
+        int[] dictionary = packAll(pack.getDictionary());
+
+        Map<String, Strategy> available = new LinkedHashMap<>();
+        for (Strategy strategy : List.of(new FirstCandidateStrategy(),
+                                         new LetterFrequencyStrategy(),
+                                         new GroupSizeStrategy("group-size", null),
+                                         new GroupSizeStrategy("group-size-dictionary", dictionary))) {
+            available.put(strategy.getName(), strategy);
+        }
+
+        List<Standing> standings = new ArrayList<>();
+        for (String name : selected == null ? available.keySet() : selected) {
+            Strategy strategy = available.get(name.trim());
+            if (strategy == null) {
+                System.err.println("Unknown strategy: " + name + "; available: " + available.keySet());
+                System.exit(2);
+            }
+            standings.add(new Standing(strategy));
+        }
+
+        System.err.println("Playing " + standings.size() + " strategies against " + secrets.length + " words on "
+                           + Runtime.getRuntime().availableProcessors() + " cores");
+
+        // **********************************************************************************************
+        // The strategies play one after another, each against its own deadline, so that a slow strategy
+        // can't hold the carriers while another one's games wait past the deadline. The games of one
+        // strategy still run side by side on all cores.
+        // **********************************************************************************************
+        for (Standing standing : standings) {
+            final long start = System.nanoTime();
+            final long deadline = start + budgetNanos;
+            long cpuStart = processCpuTime();
+
+            // **********************************************************************************************
+            // Work shared by all of the strategy's games, such as an opening guess, is done up front on
+            // this thread rather than by whichever game gets there first; it counts against the budget
+            // **********************************************************************************************
+            standing.strategy.prepare(secrets);
+
+            List<Future<?>> games = new ArrayList<>(secrets.length);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int secret : secrets) {
+                    games.add(executor.submit(() -> play(standing, secrets, secret, start, deadline)));
+                }
+            }
+            standing.cpuNanos = processCpuTime() - cpuStart;
+
+            // **********************************************************************************************
+            // A game the strategy threw in is counted, and the first such error of each strategy printed
+            // **********************************************************************************************
+            for (Future<?> game : games) {
+                try {
+                    game.get();
+                } catch (ExecutionException e) {
+                    if (standing.errors++ == 0) {
+                        System.err.println(standing.strategy.getName() + ": " + e.getCause().getClass().getName()
+                                           + ": " + e.getCause().getMessage());
+                    }
+                }
+            }
+            System.err.println(standing.strategy.getName() + " done");
+        }
+
+        // **********************************************************************************************
+        // Report
+        // **********************************************************************************************
+        PrintWriter out = outFile == null
+                ? new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : new PrintWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8));
+        out.println(CSV_HEADER);
+        for (Standing standing : standings) {
+            out.println(standing.toCsv());
+        }
+        out.flush();
+        if (outFile != null) {
+            out.close();
+        }
+    }
+
+    /**
+     * Plays one game of a strategy against a secret word and adds the result to the strategy's standing.
+     */
+    private static void play(Standing standing, int[] secrets, int secret, long start, long deadline) {
+
+        if (System.nanoTime() > deadline) {
+            standing.timedOut.increment();
+            return;
+        }
+
+        int[] candidates = secrets.clone();
+        int candidateCount = candidates.length;
+        int guesses = 0;
+        boolean solved = false;
+        while (guesses < MAX_TURNS) {
+            int guess = standing.strategy.chooseGuess(candidates, candidateCount, guesses);
+            guesses++;
+
+            int pattern = WordUtil.scoreGuess(guess, secret);
+            if (pattern == WordUtil.ALL_CORRECT) {
+                solved = true;
+                break;
+            }
+
+            // Keep only the candidates that would have produced the same pattern
+            int kept = 0;
+            for (int c = 0; c < candidateCount; c++) {
+                if (WordUtil.scoreGuess(guess, candidates[c]) == pattern) {
+                    candidates[kept++] = candidates[c];
+                }
+            }
+            candidateCount = kept;
+
+            if (candidateCount == 0 || System.nanoTime() > deadline) {
+                break;
+            }
+        }
+
+        standing.lastFinished.accumulateAndGet(System.nanoTime() - start, Math::max);
+
+        if (!solved && guesses < MAX_TURNS && candidateCount > 0) {
+            standing.timedOut.increment();
+            return;
+        }
+        standing.games.increment();
+        if (solved) {
+            standing.solved.increment();
+            standing.totalGuesses.add(guesses);
+            standing.worstCase.accumulateAndGet(guesses, Math::max);
+        }
+        if (!solved || guesses > ALLOWED_GUESSES) {
+            standing.failures.increment();
+        }
+    }
+
+    /**
+     * @return The CPU time of the whole process (ThreadMXBean has no CPU time for the virtual threads the games run
+     * on), or the elapsed time if the JVM does not report it
+     */
+    private static long processCpuTime() {
+
+        long cpuTime = os instanceof com.sun.management.OperatingSystemMXBean
+                ? ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime() : -1;
+        return cpuTime >= 0 ? cpuTime : System.nanoTime();
+    }
+
+    private static int[] packAll(List<String> words) {
+
+        int[] packed = new int[words.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = WordUtil.packWord(words.get(i));
+        }
+        return packed;
+    }
+
+    /**
+     * Running totals for one strategy, updated by all of its games at once.
+     */
+    private static class Standing {
+
+        private final Strategy strategy;
+        private final LongAdder games = new LongAdder();
+        private final LongAdder solved = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder totalGuesses = new LongAdder();
+        /** CPU time of the process while the strategy played, set once all its games are done **/
+        private long cpuNanos;
+        /** Games in which the strategy threw; counted once all its games are done **/
+        private int errors;
+        private final AtomicInteger worstCase = new AtomicInteger();
+        /** Nanoseconds from the start of the strategy's turn to the end of its last game **/
+        private final AtomicLong lastFinished = new AtomicLong();
+
+        private Standing(Strategy strategy) {
+
+            this.strategy = strategy;
+        }
+
+        private String toCsv() {
+
+            long solvedGames = solved.sum();
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.4f,%d,%d,%d",
+                                 strategy.getName(),
+                                 games.sum(),
+                                 solvedGames,
+                                 failures.sum(),
+                                 timedOut.sum(),
+                                 errors,
+                                 solvedGames == 0 ? 0.0 : (double) totalGuesses.sum() / solvedGames,
+                                 worstCase.get(),
+                                 TimeUnit.NANOSECONDS.toMillis(cpuNanos),
+                                 TimeUnit.NANOSECONDS.toMillis(lastFinished.get()));
+        }
+
+    }
+
+}
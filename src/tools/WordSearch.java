@@ -0,0 +1,88 @@
+package tools;
+
+import util.DictionaryPack;
+import util.PatternIndex;
+import util.WordQuery;
+import util.WordUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Prints the words matching a pattern, one per line.
+ *
+ * <pre>
+ * java tools.WordSearch [options] &lt;pattern&gt;
+ *
+ *   pattern               letters and ? for any letter, for example ?R?NE
+ *   --include=&lt;letters&gt;   letters that must occur somewhere
+ *   --exclude=&lt;letters&gt;   letters that must not occur
+ *   --not-at=&lt;n&gt;&lt;letter&gt;  letter that must not be at position n (1-5); may be repeated
+ *   --word-list           search the secret word list instead of the full dictionary
+ *   --count               only print the number of matches
+ * </pre>
+ */
+public class WordSearch {
+
+    public static void main(String[] args) throws IOException {
+
+        WordQuery query = new WordQuery();
+        boolean wordList = false;
+        boolean countOnly = false;
+
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--include=")) {
+                    query.include(arg.substring("--include=".length()));
+                } else if (arg.startsWith("--exclude=")) {
+                    query.exclude(arg.substring("--exclude=".length()));
+                } else if (arg.startsWith("--not-at=") && arg.length() == "--not-at=".length() + 2) {
+                    query.excludeAt(arg.charAt("--not-at=".length()) - '1', arg.charAt(arg.length() - 1));
+                } else if (arg.equals("--word-list")) {
+                    wordList = true;
+                } else if (arg.equals("--count")) {
+                    countOnly = true;
+                } else if (!arg.startsWith("--")) {
+                    query.pattern(arg);
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.WordSearch [--include=ABC] [--exclude=XYZ] [--not-at=2R]"
+                               + " [--word-list] [--count] <pattern>");
+            System.exit(2);
+        }
+
+        DictionaryPack pack = WordUtil.getDictionaryPack();
+        PatternIndex index = wordList ? pack.getWordListIndex() : pack.getDictionaryIndex();
+
+        if (countOnly) {
+            System.out.println(index.count(query));
+            return;
+        }
+
+        // **********************************************************************************************
+        // Stream the matches straight to stdout rather than collecting them first
+        // **********************************************************************************************
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            index.forEach(query, word -> {
+                try {
+                    out.write(word);
+                    out.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+}
@@ -0,0 +1,114 @@
+package util;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws indexes with probability proportional to a set of weights using Vose's alias method. Building the tables is
+ * O(n); every draw afterwards is O(1): one uniform column pick and one biased coin flip. Instances are immutable, so
+ * one sampler can be shared by any number of threads.
+ */
+public class AliasSampler {
+
+    /** Probability of keeping the picked column rather than taking its alias **/
+    private final double[] probability;
+
+    /** Index taken when the coin flip for a column fails **/
+    private final int[] alias;
+
+    /**
+     * Builds the alias tables. Negative, NaN and infinite weights count as zero; if no weight is positive, every index
+     * is equally likely.
+     *
+     * @param weights The relative weight of every index
+     */
+    public AliasSampler(double[] weights) {
+
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Cannot sample from an empty set of weights");
+        }
+        probability = new double[n];
+        alias = new int[n];
+
+        double total = 0;
+        for (double weight : weights) {
+            total += clean(weight);
+        }
+
+        // **********************************************************************************************
+        // Scale the weights so that the average is 1, then split the columns into those below and those
+        // at or above the average
+        // **********************************************************************************************
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = total > 0 ? clean(weights[i]) * n / total : 1.0;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // **********************************************************************************************
+        // Fill every small column up to 1 with the excess of a large one
+        // **********************************************************************************************
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // **********************************************************************************************
+        // Whatever is left over is full up to rounding error
+        // **********************************************************************************************
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+    }
+
+    /**
+     * Draws one index.
+     *
+     * @param random The source of randomness, for example {@link java.util.concurrent.ThreadLocalRandom#current()}
+     * @return An index between 0 (inclusive) and {@link #size()} (exclusive)
+     */
+    public int sample(RandomGenerator random) {
+
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * @return The number of indexes this sampler draws from
+     */
+    public int size() {
+
+        return probability.length;
+    }
+
+    private static double clean(double weight) {
+
+        return weight > 0 && weight < Double.POSITIVE_INFINITY ? weight : 0;
+    }
+
+}
@@ -0,0 +1,136 @@
+package util;
+
+/**
+ * Scores one guess against many secret words at once, with exactly the rules of
+ * {@link WordUtil#checkGuess(String, String)}. The secrets are laid out column-wise, one array per letter position,
+ * so that the same position of consecutive secrets sits side by side in memory.
+ * <p>
+ * {@link #create(int[], int)} returns the {@link VectorBatchScorer} when the {@code jdk.incubator.vector} module is
+ * present (start the JVM with {@code --add-modules jdk.incubator.vector}), and this scalar scorer otherwise. Both give
+ * identical pattern codes.
+ */
+public class BatchScorer {
+
+    /** Base-3 weight of each letter position in a pattern code **/
+    static final int[] WEIGHTS = {1, 3, 9, 27, 81};
+
+    private static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /** columns[p][s] is the letter (0-25) at position p of secret s **/
+    protected final int[][] columns;
+    protected final int count;
+
+    /**
+     * @param packedSecrets The packed secret words
+     * @param count         The number of secrets, from the start of the array, to score against
+     */
+    protected BatchScorer(int[] packedSecrets, int count) {
+
+        this.count = count;
+        this.columns = new int[WordUtil.WORD_LENGTH][count];
+        for (int s = 0; s < count; s++) {
+            for (int p = 0; p < WordUtil.WORD_LENGTH; p++) {
+                columns[p][s] = (packedSecrets[s] >>> (5 * p)) & 31;
+            }
+        }
+    }
+
+    /**
+     * Creates the fastest scorer this JVM supports.
+     *
+     * @param packedSecrets The packed secret words
+     * @param count         The number of secrets, from the start of the array, to score against
+     * @return The scorer
+     */
+    public static BatchScorer create(int[] packedSecrets, int count) {
+
+        // **********************************************************************************************
+        // Only touch the vector scorer class if its module is there; loading it would fail otherwise
+        // **********************************************************************************************
+        if (VECTOR_AVAILABLE) {
+            try {
+                return (BatchScorer) Class.forName("util.VectorBatchScorer")
+                                          .getDeclaredConstructor(int[].class, int.class)
+                                          .newInstance(packedSecrets, count);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+        return new BatchScorer(packedSecrets, count);
+    }
+
+    /**
+     * Creates the scalar scorer, even where the vector one is available; for checking one against the other.
+     *
+     * @param packedSecrets The packed secret words
+     * @param count         The number of secrets, from the start of the array, to score against
+     * @return The scorer
+     */
+    public static BatchScorer createScalar(int[] packedSecrets, int count) {
+
+        return new BatchScorer(packedSecrets, count);
+    }
+
+    /**
+     * @return True if {@link #create(int[], int)} returns vectorized scorers
+     */
+    public static boolean isVectorAvailable() {
+
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * @return The number of secrets scored against
+     */
+    public int size() {
+
+        return count;
+    }
+
+    /**
+     * Scores a guess against every secret.
+     *
+     * @param packedGuess The packed guess
+     * @param patterns    Receives the pattern code for each secret; must hold at least {@link #size()} entries
+     */
+    public void score(int packedGuess, int[] patterns) {
+
+        scoreRange(packedGuess, 0, patterns);
+    }
+
+    /**
+     * Scalar scoring of the secrets from {@code from} to the end; also used for the tail a vector does not fill.
+     */
+    protected final void scoreRange(int packedGuess, int from, int[] patterns) {
+
+        int g0 = packedGuess & 31;
+        int g1 = (packedGuess >>> 5) & 31;
+        int g2 = (packedGuess >>> 10) & 31;
+        int g3 = (packedGuess >>> 15) & 31;
+        int g4 = (packedGuess >>> 20) & 31;
+        int[] c0 = columns[0], c1 = columns[1], c2 = columns[2], c3 = columns[3], c4 = columns[4];
+
+        for (int s = from; s < count; s++) {
+            // **********************************************************************************************
+            // Collect the secret letters outside the CORRECT positions; a guess letter is PRESENT when it
+            // is one of them (see checkGuess)
+            // **********************************************************************************************
+            int open = 0;
+            int pattern = 0;
+            if (c0[s] == g0) pattern += 2 * WEIGHTS[0]; else open |= 1 << c0[s];
+            if (c1[s] == g1) pattern += 2 * WEIGHTS[1]; else open |= 1 << c1[s];
+            if (c2[s] == g2) pattern += 2 * WEIGHTS[2]; else open |= 1 << c2[s];
+            if (c3[s] == g3) pattern += 2 * WEIGHTS[3]; else open |= 1 << c3[s];
+            if (c4[s] == g4) pattern += 2 * WEIGHTS[4]; else open |= 1 << c4[s];
+
+            if (c0[s] != g0 && (open & (1 << g0)) != 0) pattern += WEIGHTS[0];
+            if (c1[s] != g1 && (open & (1 << g1)) != 0) pattern += WEIGHTS[1];
+            if (c2[s] != g2 && (open & (1 << g2)) != 0) pattern += WEIGHTS[2];
+            if (c3[s] != g3 && (open & (1 << g3)) != 0) pattern += WEIGHTS[3];
+            if (c4[s] != g4 && (open & (1 << g4)) != 0) pattern += WEIGHTS[4];
+            patterns[s] = pattern;
+        }
+    }
+
+}
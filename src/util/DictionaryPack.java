@@ -0,0 +1,232 @@
+package util;
+
+import datasource.WordsDatasource;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The word tables of one language together with the structures built over them: the dictionary used to validate
+ * guesses, the word list secrets are drawn from, the prefix trie and the weighted word sampler. Packs are loaded and
+ * cached by {@link DictionaryRegistry}.
+ * <p>
+ * Words are stored uppercase and must be spelled with the letters A-Z.
+ * <p>
+ * The query indexes are kept off the heap, mapped from index files next to the pack's database, and released when the
+ * pack is closed; asking for an index after that maps it again.
+ */
+public class DictionaryPack implements AutoCloseable {
+
+    /** Rough heap cost of one 5-letter String plus its list slot **/
+    private static final long BYTES_PER_WORD = 56;
+
+    private final String language;
+    private final String connectionUrl;
+    private final List<String> dictionary;
+    private final List<String> wordList;
+    private final PrefixTrie prefixTrie;
+    private final SuggestionTree suggestionTree;
+    private volatile AliasSampler wordSampler;
+    private final Path databaseFile;
+    /** Modification time of the database when the word weights were last read **/
+    private long weightsModified;
+    private volatile PatternIndex dictionaryIndex;
+    private volatile PatternIndex wordListIndex;
+    /** Holds the indexes; created with the first of them **/
+    private OffHeapArena arena;
+
+    /**
+     * Loads a pack from its SQLite file.
+     *
+     * @param language     The language code of the pack
+     * @param databaseFile The SQLite file holding the dictionary and word_list tables
+     */
+    DictionaryPack(String language, String databaseFile) {
+
+        this.language = language;
+        this.connectionUrl = WordsDatasource.getConnectionUrl(databaseFile);
+        this.dictionary = Collections.unmodifiableList(WordsDatasource.getDictionary(connectionUrl));
+        this.wordList = Collections.unmodifiableList(WordsDatasource.getWordList(connectionUrl));
+        this.prefixTrie = new PrefixTrie(dictionary);
+        this.suggestionTree = new SuggestionTree(dictionary, wordList);
+        this.databaseFile = Paths.get(databaseFile);
+        this.weightsModified = this.databaseFile.toFile().lastModified();
+        this.wordSampler = new AliasSampler(WordsDatasource.getWordWeights(connectionUrl));
+    }
+
+    public String getLanguage() {
+
+        return language;
+    }
+
+    /**
+     * @return The JDBC connection URL of the pack's database
+     */
+    public String getConnectionUrl() {
+
+        return connectionUrl;
+    }
+
+    /**
+     * @return All valid guesses, uppercase
+     */
+    public List<String> getDictionary() {
+
+        return dictionary;
+    }
+
+    /**
+     * @return All words secrets are chosen from, uppercase, in word_id order
+     */
+    public List<String> getWordList() {
+
+        return wordList;
+    }
+
+    public PrefixTrie getPrefixTrie() {
+
+        return prefixTrie;
+    }
+
+    /**
+     * @return The BK-tree behind "did you mean" suggestions for invalid guesses
+     */
+    public SuggestionTree getSuggestionTree() {
+
+        return suggestionTree;
+    }
+
+    /**
+     * @return The positional query index over the dictionary, built on first use
+     */
+    public PatternIndex getDictionaryIndex() {
+
+        PatternIndex index = dictionaryIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (dictionaryIndex == null) {
+                    dictionaryIndex = new PatternIndex(dictionary, getArena(), getIndexFile("dictionary"));
+                }
+                index = dictionaryIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return The positional query index over the word list, built on first use
+     */
+    public PatternIndex getWordListIndex() {
+
+        PatternIndex index = wordListIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (wordListIndex == null) {
+                    wordListIndex = new PatternIndex(wordList, getArena(), getIndexFile("word_list"));
+                }
+                index = wordListIndex;
+            }
+        }
+        return index;
+    }
+
+    public AliasSampler getWordSampler() {
+
+        return wordSampler;
+    }
+
+    /**
+     * Checks whether the pack's database has been written since the word weights were last read, for example by
+     * tools.DictionaryImport while the game is running. Each change is reported once.
+     *
+     * @return True if the weights should be read again
+     */
+    synchronized boolean claimDatabaseChange() {
+
+        long modified = databaseFile.toFile().lastModified();
+        if (modified == weightsModified) {
+            return false;
+        }
+        weightsModified = modified;
+        return true;
+    }
+
+    /**
+     * Replaces the weighted word sampler. Weights that do not match the size of the word list are ignored.
+     *
+     * @param weights The weight of every word, in word list order
+     */
+    void setWordWeights(double[] weights) {
+
+        if (weights.length != wordList.size()) {
+            System.err.println("Ignoring " + weights.length + " word weights for a word list of " + wordList.size()
+                               + " words");
+            return;
+        }
+        wordSampler = new AliasSampler(weights);
+    }
+
+    /**
+     * @return An estimate of the memory this pack occupies, on and off the heap, including the indexes built so far;
+     * used for the registry's memory budget
+     */
+    public long getEstimatedBytes() {
+
+        return getHeapBytes() + getOffHeapBytes();
+    }
+
+    /**
+     * @return An estimate of the heap this pack occupies
+     */
+    public long getHeapBytes() {
+
+        return (dictionary.size() + wordList.size()) * BYTES_PER_WORD
+               + prefixTrie.size() * 8L
+               + suggestionTree.size() * (BYTES_PER_WORD + 8L + 1 + (WordUtil.WORD_LENGTH + 1) * 4L)
+               + wordSampler.size() * 12L;
+    }
+
+    /**
+     * @return The memory the pack's indexes occupy off the heap
+     */
+    public synchronized long getOffHeapBytes() {
+
+        return arena == null ? 0 : arena.getBytes();
+    }
+
+    /**
+     * Releases the off-heap indexes. Indexes already handed out can no longer be queried; the pack itself stays usable
+     * and maps its indexes again when they are next asked for.
+     */
+    @Override
+    public synchronized void close() {
+
+        if (arena != null) {
+            arena.close();
+            arena = null;
+        }
+        dictionaryIndex = null;
+        wordListIndex = null;
+    }
+
+    private synchronized OffHeapArena getArena() {
+
+        if (arena == null) {
+            arena = new OffHeapArena();
+        }
+        return arena;
+    }
+
+    /**
+     * @param table The table the index is built over
+     * @return The index file of the table; the English pack keeps the plain file name
+     */
+    private Path getIndexFile(String table) {
+
+        return Paths.get(DictionaryRegistry.DEFAULT_LANGUAGE.equals(language)
+                                 ? table + ".idx" : table + "_" + language + ".idx");
+    }
+
+}
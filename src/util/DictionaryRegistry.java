@@ -0,0 +1,171 @@
+package util;
+
+import datasource.WordsDatasource;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads dictionary packs on demand, the first time a language is played, and keeps the recently used ones in memory.
+ * The English pack lives in workle.dat; any other language lives in workle_&lt;language&gt;.dat next to it.
+ * <p>
+ * Loaded packs are kept in least-recently-used order. Once their estimated size exceeds the memory budget, the
+ * least recently used packs are dropped (the pack just loaded is always kept). The budget is set in megabytes with the
+ * system property {@value #BUDGET_PROPERTY} and defaults to {@value #DEFAULT_BUDGET_MB} MB. A dropped pack is
+ * reloaded from its file the next time it is asked for; its off-heap indexes are released as it is dropped.
+ */
+public class DictionaryRegistry {
+
+    public static final String DEFAULT_LANGUAGE = "en";
+
+    public static final String BUDGET_PROPERTY = "workle.dictionary.budget.mb";
+    public static final long DEFAULT_BUDGET_MB = 64;
+
+    private static final long budgetBytes = Math.max(0, Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET_MB)) << 20;
+
+    /** Loaded packs, least recently used first. Guarded by itself. **/
+    private static final LinkedHashMap<String, DictionaryPack> packs = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Packs currently being loaded, so concurrent requests for one language share a single load **/
+    private static final Map<String, CompletableFuture<DictionaryPack>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Provides the pack for a language, loading it if it is not in memory.
+     *
+     * @param language The language code, for example "en"
+     * @return The dictionary pack
+     * @throws IllegalArgumentException If there is no pack for the language
+     */
+    public static DictionaryPack getPack(String language) {
+
+        final String key = language.toLowerCase(Locale.ROOT);
+
+        DictionaryPack pack = getLoadedPack(key);
+        if (pack != null) {
+            return pack;
+        }
+
+        // **********************************************************************************************
+        // Only one thread loads a given language; any others wait for its result
+        // **********************************************************************************************
+        CompletableFuture<DictionaryPack> load = new CompletableFuture<>();
+        CompletableFuture<DictionaryPack> inProgress = loading.putIfAbsent(key, load);
+        if (inProgress != null) {
+            try {
+                return inProgress.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            pack = getLoadedPack(key);
+            if (pack == null) {
+                if (!isAvailable(key)) {
+                    throw new IllegalArgumentException("No dictionary pack for language '" + key + "'");
+                }
+                pack = new DictionaryPack(key, getDatabaseFile(key));
+                addPack(pack);
+            }
+            load.complete(pack);
+            return pack;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key);
+        }
+    }
+
+    /**
+     * @param language The language code
+     * @return True if a pack file exists for the language
+     */
+    public static boolean isAvailable(String language) {
+
+        return new File(getDatabaseFile(language.toLowerCase(Locale.ROOT))).isFile();
+    }
+
+    /**
+     * @param language The language code
+     * @return The name of the SQLite file holding the pack for the language
+     */
+    public static String getDatabaseFile(String language) {
+
+        return DEFAULT_LANGUAGE.equals(language) ? WordsDatasource.DATABASE_FILE : "workle_" + language + ".dat";
+    }
+
+    /**
+     * @return The languages currently held in memory, least recently used first
+     */
+    public static List<String> getLoadedLanguages() {
+
+        synchronized (packs) {
+            return new ArrayList<>(packs.keySet());
+        }
+    }
+
+    /**
+     * @return The estimated size of all packs currently held in memory
+     */
+    public static long getResidentBytes() {
+
+        synchronized (packs) {
+            return sumEstimatedBytes();
+        }
+    }
+
+    /**
+     * @return The estimated heap size of all packs currently held in memory, leaving out their off-heap indexes
+     */
+    public static long getResidentHeapBytes() {
+
+        synchronized (packs) {
+            long total = 0;
+            for (DictionaryPack pack : packs.values()) {
+                total += pack.getHeapBytes();
+            }
+            return total;
+        }
+    }
+
+    private static DictionaryPack getLoadedPack(String key) {
+
+        synchronized (packs) {
+            return packs.get(key);
+        }
+    }
+
+    private static void addPack(DictionaryPack pack) {
+
+        synchronized (packs) {
+            packs.put(pack.getLanguage(), pack);
+
+            // **********************************************************************************************
+            // Drop the least recently used packs until we are back under budget. Sizes are re-read every
+            // time, since packs grow as their indexes are built.
+            // **********************************************************************************************
+            long residentBytes = sumEstimatedBytes();
+            Iterator<DictionaryPack> eldest = packs.values().iterator();
+            while (residentBytes > budgetBytes && packs.size() > 1) {
+                DictionaryPack evicted = eldest.next();
+                eldest.remove();
+                residentBytes -= evicted.getEstimatedBytes();
+                evicted.close();
+            }
+        }
+    }
+
+    private static long sumEstimatedBytes() {
+
+        long total = 0;
+        for (DictionaryPack pack : packs.values()) {
+            total += pack.getEstimatedBytes();
+        }
+        return total;
+    }
+
+}
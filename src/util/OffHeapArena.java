@@ -0,0 +1,279 @@
+package util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Owns memory outside the Java heap for large read-only structures, so that they add nothing to GC work. Memory is
+ * either allocated directly or mapped from a file; a mapped region survives the process and is mapped again, without
+ * being rebuilt, the next time it is asked for with the same key.
+ * <p>
+ * All memory of an arena is released together by {@link #close()}. Readers bracket every access with
+ * {@link #acquire()} and {@link #release()}: an arena closed while it is being read is only released once the last
+ * reader is done, and any later {@link #acquire()} fails with an IllegalStateException instead of touching freed
+ * memory.
+ */
+public class OffHeapArena implements AutoCloseable {
+
+    private static final int MAGIC = 0x574B4F48;    // "WKOH"
+    /** magic, length and key, padded so the data that follows is 8-byte aligned **/
+    private static final int HEADER_BYTES = 24;
+
+    private static final AtomicLong directBytes = new AtomicLong();
+    private static final AtomicLong mappedBytes = new AtomicLong();
+    private static final AtomicInteger openArenas = new AtomicInteger();
+
+    /** sun.misc.Unsafe.invokeCleaner, or null if jdk.unsupported is missing and buffers are left to the GC **/
+    private static final Cleaner cleaner = Cleaner.find();
+
+    /** The buffers handed out, as allocated; only these (not their views) can be released **/
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private long arenaDirectBytes;
+    private long arenaMappedBytes;
+
+    private final AtomicInteger readers = new AtomicInteger();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public OffHeapArena() {
+
+        openArenas.incrementAndGet();
+    }
+
+    /**
+     * Allocates zeroed memory.
+     *
+     * @param bytes The size
+     * @return The memory, in native byte order
+     */
+    public synchronized ByteBuffer allocate(int bytes) {
+
+        ensureOpen();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        buffers.add(buffer);
+        arenaDirectBytes += bytes;
+        directBytes.addAndGet(bytes);
+        return buffer;
+    }
+
+    /**
+     * Maps memory from a file. If the file holds data of the given size stored under the given key, it is mapped as is;
+     * otherwise the file is created again and {@code fill} is asked to write the data into it first.
+     *
+     * @param file  The backing file
+     * @param key   Identifies the data, typically a hash of what it is built from
+     * @param bytes The size of the data
+     * @param fill  Writes the data into a zeroed buffer of {@code bytes} bytes
+     * @return The data, read-only, in native byte order
+     */
+    public synchronized ByteBuffer map(Path file, long key, int bytes, Consumer<ByteBuffer> fill) {
+
+        ensureOpen();
+        try {
+            if (!hasData(file, key, bytes)) {
+                // **********************************************************************************************
+                // Build the data in a scratch file and move it into place, so a crash never leaves a file that
+                // looks valid but is half written
+                // **********************************************************************************************
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                                                            StandardOpenOption.TRUNCATE_EXISTING,
+                                                            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + bytes);
+                    mapping.order(ByteOrder.nativeOrder());
+                    fill.accept(mapping.slice(HEADER_BYTES, bytes).order(ByteOrder.nativeOrder()));
+                    mapping.putInt(0, MAGIC);
+                    mapping.putInt(4, bytes);
+                    mapping.putLong(8, key);
+                    mapping.force();
+                    release(mapping);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + bytes);
+                buffers.add(mapping);
+                arenaMappedBytes += bytes;
+                mappedBytes.addAndGet(bytes);
+                return mapping.slice(HEADER_BYTES, bytes).asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Marks the start of a read. Every successful call must be paired with {@link #release()}.
+     *
+     * @throws IllegalStateException If the arena has been closed
+     */
+    public void acquire() {
+
+        readers.incrementAndGet();
+        if (closed) {
+            release();
+            throw new IllegalStateException("Off-heap arena has been closed");
+        }
+    }
+
+    /**
+     * Marks the end of a read started with {@link #acquire()}.
+     */
+    public void release() {
+
+        if (readers.decrementAndGet() == 0 && closed) {
+            releaseMemory();
+        }
+    }
+
+    public boolean isClosed() {
+
+        return closed;
+    }
+
+    /**
+     * @return The bytes this arena holds, allocated and mapped
+     */
+    public synchronized long getBytes() {
+
+        return arenaDirectBytes + arenaMappedBytes;
+    }
+
+    /**
+     * Releases all memory of the arena, at once if nobody is reading it, or else when the last reader is done.
+     */
+    @Override
+    public void close() {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (readers.get() == 0) {
+            releaseMemory();
+        }
+    }
+
+    /**
+     * @return The bytes allocated by all open arenas
+     */
+    public static long getDirectBytes() {
+
+        return directBytes.get();
+    }
+
+    /**
+     * @return The bytes mapped from files by all open arenas
+     */
+    public static long getMappedBytes() {
+
+        return mappedBytes.get();
+    }
+
+    public static int getOpenArenas() {
+
+        return openArenas.get();
+    }
+
+    private void ensureOpen() {
+
+        if (closed) {
+            throw new IllegalStateException("Off-heap arena has been closed");
+        }
+    }
+
+    private void releaseMemory() {
+
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            for (ByteBuffer buffer : buffers) {
+                release(buffer);
+            }
+            buffers.clear();
+            directBytes.addAndGet(-arenaDirectBytes);
+            mappedBytes.addAndGet(-arenaMappedBytes);
+            arenaDirectBytes = 0;
+            arenaMappedBytes = 0;
+        }
+        openArenas.decrementAndGet();
+    }
+
+    private static void release(ByteBuffer buffer) {
+
+        if (cleaner != null) {
+            cleaner.clean(buffer);
+        }
+    }
+
+    private static boolean hasData(Path file, long key, int bytes) throws IOException {
+
+        if (!Files.isRegularFile(file) || Files.size(file) != HEADER_BYTES + bytes) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete
+            }
+            return header.getInt(0) == MAGIC && header.getInt(4) == bytes && header.getLong(8) == key;
+        }
+    }
+
+    /**
+     * Frees direct and mapped buffers right away rather than when the GC gets round to them.
+     */
+    private static class Cleaner {
+
+        private final Object unsafe;
+        private final Method invokeCleaner;
+
+        private Cleaner(Object unsafe, Method invokeCleaner) {
+
+            this.unsafe = unsafe;
+            this.invokeCleaner = invokeCleaner;
+        }
+
+        private static Cleaner find() {
+
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return new Cleaner(theUnsafe.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.err.println("Off-heap memory will be released by the GC: " + e);
+                return null;
+            }
+        }
+
+        private void clean(ByteBuffer buffer) {
+
+            try {
+                invokeCleaner.invoke(unsafe, buffer);
+            } catch (ReflectiveOperationException e) {
+                System.err.println(e.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+
+    }
+
+}
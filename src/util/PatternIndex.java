@@ -0,0 +1,419 @@
+package util;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Answers {@link WordQuery} queries over a fixed list of words using precomputed bitsets, one bit per word:
+ * <ul>
+ *     <li>for every position and letter, the words with that letter at that position;</li>
+ *     <li>for every letter and count k, the words containing the letter at least k times.</li>
+ * </ul>
+ * A query is compiled into a short list of these bitsets, and the matches of a block of 64 words are found by ANDing
+ * one long from each (inverted where a condition rules words out). Nothing is scanned letter by letter, and matches
+ * can be streamed block by block without materializing the result.
+ * <p>
+ * The bitsets live off the heap, in an {@link OffHeapArena}, and can be mapped from a file so that they are only
+ * built once. Once the arena is closed the index can no longer be queried.
+ */
+public class PatternIndex implements AutoCloseable {
+
+    private static final int LETTERS = 26;
+
+    /** Changes whenever the bitset layout does, so that index files in an older layout are rebuilt **/
+    private static final int LAYOUT_VERSION = 1;
+
+    private final String[] words;
+    private final int wordLength;
+    private final int blocks;
+
+    /**
+     * All bitsets, each {@code blocks} longs long. The bitset of the words with a letter at a position comes first, at
+     * {@link #positionalOffset(int, int)}; the bitset of the words with at least a number of a letter follows, at
+     * {@link #countOffset(int, int)}.
+     */
+    private final LongBuffer bitsets;
+
+    /** Holds the bitsets **/
+    private final OffHeapArena arena;
+    /** Was the arena created for this index alone, so that closing the index closes it? **/
+    private final boolean ownsArena;
+
+    /**
+     * Builds the index in off-heap memory of its own, released by {@link #close()}.
+     *
+     * @param wordList Uppercase words, all of the same length and made of the letters A-Z
+     */
+    public PatternIndex(List<String> wordList) {
+
+        this(wordList, new OffHeapArena(), null, true);
+    }
+
+    /**
+     * Builds the index in an arena owned by the caller, or maps it from a file built earlier for the same words.
+     *
+     * @param wordList Uppercase words, all of the same length and made of the letters A-Z
+     * @param arena    The arena to hold the bitsets; closing it retires the index
+     * @param file     The file to map the bitsets from (and to build them into if it is missing or out of date), or
+     *                 null to allocate them directly
+     */
+    public PatternIndex(List<String> wordList, OffHeapArena arena, Path file) {
+
+        this(wordList, arena, file, false);
+    }
+
+    private PatternIndex(List<String> wordList, OffHeapArena arena, Path file, boolean ownsArena) {
+
+        this.words = wordList.toArray(new String[0]);
+        this.wordLength = words.length == 0 ? 0 : words[0].length();
+        this.blocks = (words.length + 63) >>> 6;
+        this.arena = arena;
+        this.ownsArena = ownsArena;
+
+        for (String word : words) {
+            if (word.length() != wordLength) {
+                throw new IllegalArgumentException("All words must have " + wordLength + " letters: " + word);
+            }
+            for (int position = 0; position < wordLength; position++) {
+                if (word.charAt(position) < 'A' || word.charAt(position) > 'Z') {
+                    throw new IllegalArgumentException("Not a word of letters A-Z: " + word);
+                }
+            }
+        }
+
+        int bytes = Math.toIntExact(2L * wordLength * LETTERS * blocks * Long.BYTES);
+        ByteBuffer memory;
+        if (file == null) {
+            memory = arena.allocate(bytes);
+            fill(memory.asLongBuffer());
+        } else {
+            memory = arena.map(file, computeKey(words), bytes, buffer -> fill(buffer.asLongBuffer()));
+        }
+        this.bitsets = memory.asLongBuffer();
+    }
+
+    /**
+     * Sets the bit of every word in its positional and count bitsets.
+     */
+    private void fill(LongBuffer target) {
+
+        int[] counts = new int[LETTERS];
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            int block = w >>> 6;
+            long bit = 1L << w;
+
+            Arrays.fill(counts, 0);
+            for (int position = 0; position < wordLength; position++) {
+                int letter = word.charAt(position) - 'A';
+                int positional = positionalOffset(position, letter) + block;
+                target.put(positional, target.get(positional) | bit);
+                int count = countOffset(letter, ++counts[letter]) + block;
+                target.put(count, target.get(count) | bit);
+            }
+        }
+    }
+
+    /**
+     * @return A 64-bit FNV-1a hash of the layout version and the words, in order
+     */
+    private static long computeKey(String[] words) {
+
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ LAYOUT_VERSION) * 0x100000001b3L;
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                hash = (hash ^ word.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ ',') * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * @return The number of indexed words
+     */
+    public int size() {
+
+        return words.length;
+    }
+
+    /**
+     * @return The number of letters in every indexed word
+     */
+    public int getWordLength() {
+
+        return wordLength;
+    }
+
+    /**
+     * @return The number of bytes held by the bitsets
+     */
+    public long getIndexBytes() {
+
+        return bitsets.capacity() * 8L;
+    }
+
+    /**
+     * Releases the bitsets if the index has an arena of its own; an index in a shared arena is retired by closing the
+     * arena instead.
+     */
+    @Override
+    public void close() {
+
+        if (ownsArena) {
+            arena.close();
+        }
+    }
+
+    /**
+     * @param query The query
+     * @return The number of matching words
+     */
+    public int count(WordQuery query) {
+
+        Compiled compiled = compile(query);
+        int count = 0;
+        arena.acquire();
+        try {
+            for (int block = 0; compiled != null && block < blocks; block++) {
+                count += Long.bitCount(compiled.match(block));
+            }
+        } finally {
+            arena.release();
+        }
+        return count;
+    }
+
+    /**
+     * Passes every matching word to the consumer, in index order.
+     *
+     * @param query    The query
+     * @param consumer Receives the matches
+     */
+    public void forEach(WordQuery query, Consumer<String> consumer) {
+
+        Compiled compiled = compile(query);
+        for (int block = 0; compiled != null && block < blocks; block++) {
+            long matches = compiled.matchGuarded(block);
+            while (matches != 0) {
+                consumer.accept(words[(block << 6) + Long.numberOfTrailingZeros(matches)]);
+                matches &= matches - 1;
+            }
+        }
+    }
+
+    /**
+     * Streams the matching words, in index order. Blocks are only evaluated as the stream is consumed, so short-
+     * circuiting operations such as limit() or findFirst() do not pay for the whole index.
+     *
+     * @param query The query
+     * @return The matching words
+     */
+    public Stream<String> stream(WordQuery query) {
+
+        Compiled compiled = compile(query);
+        if (compiled == null) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new MatchSpliterator(compiled, 0, blocks), false);
+    }
+
+    /**
+     * @param query The query
+     * @return All matching words, in index order
+     */
+    public List<String> find(WordQuery query) {
+
+        List<String> matches = new ArrayList<>();
+        forEach(query, matches::add);
+        return matches;
+    }
+
+    /**
+     * Turns a query into the list of bitsets to AND together.
+     *
+     * @return The compiled query, or null if no word can match
+     */
+    private Compiled compile(WordQuery query) {
+
+        String pattern = query.getPattern();
+        if (pattern != null && pattern.length() != wordLength) {
+            return null;
+        }
+
+        List<Integer> offsets = new ArrayList<>();
+        List<Boolean> inverted = new ArrayList<>();
+
+        // **********************************************************************************************
+        // Fixed letters and letters ruled out by position
+        // **********************************************************************************************
+        for (int position = 0; position < wordLength; position++) {
+            int excluded = query.getExcludedAt(position);
+            if (pattern != null && Character.isLetter(pattern.charAt(position))) {
+                int letter = pattern.charAt(position) - 'A';
+                if ((excluded & (1 << letter)) != 0) {
+                    return null;
+                }
+                offsets.add(positionalOffset(position, letter));
+                inverted.add(false);
+            } else {
+                for (int letter = 0; letter < LETTERS; letter++) {
+                    if ((excluded & (1 << letter)) != 0) {
+                        offsets.add(positionalOffset(position, letter));
+                        inverted.add(true);
+                    }
+                }
+            }
+        }
+
+        // **********************************************************************************************
+        // Letter counts: "at least min" is one bitset, "at most max" is the inverse of "at least max + 1"
+        // **********************************************************************************************
+        for (int letter = 0; letter < LETTERS; letter++) {
+            int min = query.getMinCount(letter);
+            int max = query.getMaxCount(letter);
+            if (min > max || min > wordLength) {
+                return null;
+            }
+            if (min > 0) {
+                offsets.add(countOffset(letter, min));
+                inverted.add(false);
+            }
+            if (max < wordLength) {
+                offsets.add(countOffset(letter, max + 1));
+                inverted.add(true);
+            }
+        }
+
+        int[] offsetArray = new int[offsets.size()];
+        long[] flipMasks = new long[offsets.size()];
+        for (int i = 0; i < offsetArray.length; i++) {
+            offsetArray[i] = offsets.get(i);
+            flipMasks[i] = inverted.get(i) ? -1L : 0L;
+        }
+        return new Compiled(offsetArray, flipMasks);
+    }
+
+    private int positionalOffset(int position, int letter) {
+
+        return (position * LETTERS + letter) * blocks;
+    }
+
+    /**
+     * @return Offset of the bitset of the words containing the letter at least {@code count} times (1 or more)
+     */
+    private int countOffset(int letter, int count) {
+
+        return ((LETTERS + letter) * wordLength + count - 1) * blocks;
+    }
+
+    private class Compiled {
+
+        private final int[] offsets;
+        private final long[] flipMasks;
+
+        private Compiled(int[] offsets, long[] flipMasks) {
+
+            this.offsets = offsets;
+            this.flipMasks = flipMasks;
+        }
+
+        /**
+         * @return One bit for every matching word of the block
+         */
+        private long match(int block) {
+
+            // **********************************************************************************************
+            // Start from every word of the block; the last block may be only partly filled
+            // **********************************************************************************************
+            int remaining = words.length - (block << 6);
+            long matches = remaining >= 64 ? -1L : (1L << remaining) - 1;
+
+            for (int i = 0; i < offsets.length && matches != 0; i++) {
+                matches &= bitsets.get(offsets[i] + block) ^ flipMasks[i];
+            }
+            return matches;
+        }
+
+        /**
+         * {@link #match(int)} for callers that hand control back between blocks, so the arena must not be held
+         * across them.
+         */
+        private long matchGuarded(int block) {
+
+            arena.acquire();
+            try {
+                return match(block);
+            } finally {
+                arena.release();
+            }
+        }
+
+    }
+
+    /**
+     * Walks the matches of a range of blocks, evaluating one block at a time.
+     */
+    private class MatchSpliterator implements Spliterator<String> {
+
+        private final Compiled compiled;
+        private int block;
+        private final int endBlock;
+        private long pending;
+
+        private MatchSpliterator(Compiled compiled, int block, int endBlock) {
+
+            this.compiled = compiled;
+            this.block = block;
+            this.endBlock = endBlock;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+
+            while (pending == 0) {
+                if (block >= endBlock) {
+                    return false;
+                }
+                pending = compiled.matchGuarded(block++);
+            }
+            int index = ((block - 1) << 6) + Long.numberOfTrailingZeros(pending);
+            pending &= pending - 1;
+            action.accept(words[index]);
+            return true;
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+
+            int remaining = endBlock - block;
+            if (pending != 0 || remaining < 2) {
+                return null;
+            }
+            int middle = block + remaining / 2;
+            MatchSpliterator prefix = new MatchSpliterator(compiled, block, middle);
+            block = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+
+            return (long) (endBlock - block) << 6;
+        }
+
+        @Override
+        public int characteristics() {
+
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+    }
+
+}
@@ -0,0 +1,133 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable trie over words made of the letters A-Z, stored as two flat int arrays. Each node keeps a bitmask of
+ * the letters that have a child plus the index of its first child; children of a node are stored next to each other,
+ * so stepping to the child for a letter is a mask test and a popcount. Walking one letter is O(1) and allocation-free,
+ * which lets the game check the current prefix on every keystroke.
+ */
+public class PrefixTrie {
+
+    /** Node index of the empty prefix **/
+    public static final int ROOT = 0;
+
+    /** Returned by {@link #step(int, char)} when no word continues with the given letter **/
+    public static final int NONE = -1;
+
+    /** Bit set in the node mask when the path to the node spells a complete word **/
+    private static final int TERMINAL = 1 << 26;
+
+    private final int[] masks;
+    private final int[] firstChild;
+
+    /**
+     * Builds the trie from the given words. Words containing characters outside A-Z are skipped.
+     *
+     * @param words Uppercase words to be stored
+     */
+    public PrefixTrie(List<String> words) {
+
+        // **********************************************************************************************
+        // Build a temporary pointer-based trie first...
+        // **********************************************************************************************
+        BuildNode root = new BuildNode();
+        int nodeCount = 1;
+        for (String word : words) {
+            BuildNode node = root;
+            boolean valid = true;
+            for (int i = 0; i < word.length() && valid; i++) {
+                int letter = word.charAt(i) - 'A';
+                if (letter < 0 || letter >= 26) {
+                    valid = false;
+                } else {
+                    if (node.children[letter] == null) {
+                        node.children[letter] = new BuildNode();
+                        nodeCount++;
+                    }
+                    node = node.children[letter];
+                }
+            }
+            if (valid) {
+                node.terminal = true;
+            }
+        }
+
+        // **********************************************************************************************
+        // ... then flatten it breadth first so that the children of every node end up side by side
+        // **********************************************************************************************
+        masks = new int[nodeCount];
+        firstChild = new int[nodeCount];
+
+        List<BuildNode> queue = new ArrayList<>(nodeCount);
+        queue.add(root);
+        for (int index = 0; index < queue.size(); index++) {
+            BuildNode node = queue.get(index);
+            int mask = node.terminal ? TERMINAL : 0;
+            firstChild[index] = queue.size();
+            for (int letter = 0; letter < 26; letter++) {
+                if (node.children[letter] != null) {
+                    mask |= 1 << letter;
+                    queue.add(node.children[letter]);
+                }
+            }
+            masks[index] = mask;
+        }
+    }
+
+    /**
+     * Follows the edge for one letter.
+     *
+     * @param node   The current node, or {@link #NONE}
+     * @param letter An uppercase letter
+     * @return The child node, or {@link #NONE} if no stored word continues with this letter
+     */
+    public int step(int node, char letter) {
+
+        int bit = letter - 'A';
+        if (node < 0 || bit < 0 || bit >= 26 || (masks[node] & (1 << bit)) == 0) {
+            return NONE;
+        }
+        return firstChild[node] + Integer.bitCount(masks[node] & ((1 << bit) - 1));
+    }
+
+    /**
+     * @param node A node returned by {@link #step(int, char)}
+     * @return True if the path to this node spells a stored word
+     */
+    public boolean isWord(int node) {
+
+        return node >= 0 && (masks[node] & TERMINAL) != 0;
+    }
+
+    /**
+     * @param word The uppercase word to look up
+     * @return True if the word is stored in the trie
+     */
+    public boolean contains(CharSequence word) {
+
+        int node = ROOT;
+        for (int i = 0; i < word.length() && node != NONE; i++) {
+            node = step(node, word.charAt(i));
+        }
+        return isWord(node);
+    }
+
+    /**
+     * @return The number of nodes in the trie
+     */
+    public int size() {
+
+        return masks.length;
+    }
+
+    private static class BuildNode {
+
+        private final BuildNode[] children = new BuildNode[26];
+        private boolean terminal;
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * A BK-tree over the dictionary under Hamming distance (the number of positions at which two words of the same length
+ * differ), for "did you mean" suggestions. Every child hangs off its parent under its distance to the parent, so by the
+ * triangle inequality a search within radius r only descends into the children whose edge is within r of the
+ * distance to the node, and skips every other subtree.
+ * <p>
+ * Words are packed 5 bits per letter into a long, so the distance is one XOR and a popcount. The tree is stored as
+ * flat arrays: {@code children[node * (wordLength + 1) + d]} is the child at distance d, or -1.
+ */
+public class SuggestionTree {
+
+    /** Farthest a suggestion may be from the word typed **/
+    public static final int MAX_DISTANCE = 2;
+
+    private final String[] words;
+    private final long[] packed;
+    /** Words from the word list, which are likelier to be what was meant, rank first on equal distance **/
+    private final boolean[] common;
+    private final int wordLength;
+    /** Bit 0 of every 5-bit letter group **/
+    private final long letterMask;
+    private final int[] children;
+    private final int root;
+
+    /**
+     * Builds the tree. Words not of the same length as the first are left out.
+     *
+     * @param dictionary  Uppercase words made of the letters A-Z
+     * @param commonWords Uppercase words to be suggested first when they are as close as any other
+     */
+    public SuggestionTree(List<String> dictionary, List<String> commonWords) {
+
+        this.wordLength = dictionary.isEmpty() ? 0 : Math.min(12, dictionary.get(0).length());
+        long mask = 0;
+        for (int i = 0; i < wordLength; i++) {
+            mask |= 1L << (5 * i);
+        }
+        this.letterMask = mask;
+
+        List<String> accepted = new ArrayList<>(dictionary.size());
+        for (String word : dictionary) {
+            if (word.length() == wordLength) {
+                accepted.add(word);
+            }
+        }
+        accepted.sort(null);
+        this.words = accepted.toArray(new String[0]);
+        this.packed = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            packed[i] = pack(words[i]);
+        }
+
+        Set<String> commonSet = new HashSet<>(commonWords);
+        this.common = new boolean[words.length];
+        for (int i = 0; i < words.length; i++) {
+            common[i] = commonSet.contains(words[i]);
+        }
+
+        // **********************************************************************************************
+        // Insert in a fixed shuffled order: alphabetical insertion makes a lopsided tree, since
+        // neighbours in the alphabet share their prefixes
+        // **********************************************************************************************
+        this.children = new int[words.length * (wordLength + 1)];
+        Arrays.fill(children, -1);
+        int[] order = new int[words.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(words.length);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        this.root = order.length == 0 ? -1 : order[0];
+        for (int i = 1; i < order.length; i++) {
+            insert(order[i]);
+        }
+    }
+
+    /**
+     * Finds the valid words closest to a word, nearest first; among equally near words, those from the word list come
+     * first, then alphabetical order.
+     *
+     * @param word  The word typed, uppercase
+     * @param limit The most suggestions to return
+     * @return Up to {@code limit} words within {@link #MAX_DISTANCE}, or an empty list if there are none
+     */
+    public List<String> suggest(String word, int limit) {
+
+        if (root == -1 || word.length() != wordLength || limit <= 0) {
+            return List.of();
+        }
+        long target = pack(word);
+
+        // **********************************************************************************************
+        // Most typos are one letter off, and a radius-1 search visits a fraction of the nodes a radius-2
+        // search does; only widen the search if it comes up short
+        // **********************************************************************************************
+        Matches matches = new Matches();
+        for (int radius = 1; radius <= MAX_DISTANCE && matches.count < limit; radius++) {
+            matches.count = 0;
+            search(target, radius, matches);
+        }
+
+        // Words are indexed alphabetically, so sorting the keys settles the final tie as well
+        Arrays.sort(matches.keys, 0, matches.count);
+        List<String> suggestions = new ArrayList<>(Math.min(limit, matches.count));
+        for (int i = 0; i < matches.count && i < limit; i++) {
+            suggestions.add(words[(int) matches.keys[i]]);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Collects the words within a radius.
+     *
+     * @param target  The packed word searched for
+     * @param radius  The farthest distance to collect
+     * @param matches Receives the matches
+     */
+    private void search(long target, int radius, Matches matches) {
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = distance(target, packed[node]);
+            if (distance > 0 && distance <= radius) {
+                matches.add(((long) distance << 40) | ((common[node] ? 0L : 1L) << 32) | node);
+            }
+
+            int base = node * (wordLength + 1);
+            int from = Math.max(1, distance - radius);
+            int to = Math.min(wordLength, distance + radius);
+            for (int d = from; d <= to; d++) {
+                int child = children[base + d];
+                if (child != -1) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of words in the tree
+     */
+    public int size() {
+
+        return words.length;
+    }
+
+    private void insert(int index) {
+
+        int node = root;
+        while (true) {
+            int distance = distance(packed[index], packed[node]);
+            if (distance == 0) {
+                return;     // duplicate word
+            }
+            int slot = node * (wordLength + 1) + distance;
+            if (children[slot] == -1) {
+                children[slot] = index;
+                return;
+            }
+            node = children[slot];
+        }
+    }
+
+    /**
+     * @return The number of letter groups in which the two packed words differ
+     */
+    private int distance(long a, long b) {
+
+        long x = a ^ b;
+        x |= (x >>> 1) | (x >>> 2) | (x >>> 3) | (x >>> 4);
+        return Long.bitCount(x & letterMask);
+    }
+
+    private long pack(String word) {
+
+        long value = 0;
+        for (int i = 0; i < wordLength; i++) {
+            value |= (long) ((word.charAt(i) - 'A') & 31) << (5 * i);
+        }
+        return value;
+    }
+
+    /**
+     * Matches as (distance, rank, index) sort keys.
+     */
+    private static class Matches {
+
+        private long[] keys = new long[16];
+        private int count;
+
+        private void add(long key) {
+
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = key;
+        }
+
+    }
+
+}
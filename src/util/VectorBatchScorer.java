@@ -0,0 +1,89 @@
+package util;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BatchScorer} on the Vector API: each lane holds one secret word, so a whole vector of secrets is scored with
+ * one compare per (guess position, secret position) pair. Create it through {@link BatchScorer#create(int[], int)},
+ * which only loads this class when the {@code jdk.incubator.vector} module is present.
+ */
+class VectorBatchScorer extends BatchScorer {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /** Stands in for the secret letter at a green position; letters only go up to 25 **/
+    private static final int NO_LETTER = 31;
+
+    VectorBatchScorer(int[] packedSecrets, int count) {
+
+        super(packedSecrets, count);
+    }
+
+    @Override
+    public void score(int packedGuess, int[] patterns) {
+
+        int g0 = packedGuess & 31;
+        int g1 = (packedGuess >>> 5) & 31;
+        int g2 = (packedGuess >>> 10) & 31;
+        int g3 = (packedGuess >>> 15) & 31;
+        int g4 = (packedGuess >>> 20) & 31;
+        int[] col0 = columns[0], col1 = columns[1], col2 = columns[2], col3 = columns[3], col4 = columns[4];
+
+        IntVector zero = IntVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(count);
+        int s = 0;
+        for (; s < bound; s += SPECIES.length()) {
+            IntVector c0 = IntVector.fromArray(SPECIES, col0, s);
+            IntVector c1 = IntVector.fromArray(SPECIES, col1, s);
+            IntVector c2 = IntVector.fromArray(SPECIES, col2, s);
+            IntVector c3 = IntVector.fromArray(SPECIES, col3, s);
+            IntVector c4 = IntVector.fromArray(SPECIES, col4, s);
+
+            // **********************************************************************************************
+            // Green lanes per position. The "open" letters are the secret letters outside the green
+            // positions, with green positions replaced by 31 so no guess letter can match them; a guess
+            // letter is PRESENT when it equals one of them (see checkGuess).
+            // **********************************************************************************************
+            VectorMask<Integer> green0 = c0.eq(g0);
+            VectorMask<Integer> green1 = c1.eq(g1);
+            VectorMask<Integer> green2 = c2.eq(g2);
+            VectorMask<Integer> green3 = c3.eq(g3);
+            VectorMask<Integer> green4 = c4.eq(g4);
+            IntVector open0 = c0.blend(NO_LETTER, green0);
+            IntVector open1 = c1.blend(NO_LETTER, green1);
+            IntVector open2 = c2.blend(NO_LETTER, green2);
+            IntVector open3 = c3.blend(NO_LETTER, green3);
+            IntVector open4 = c4.blend(NO_LETTER, green4);
+
+            // Written out in full: C2 only keeps the vectors in registers if nothing here is a call
+            VectorMask<Integer> present0 = open0.eq(g0).or(open1.eq(g0)).or(open2.eq(g0)).or(open3.eq(g0))
+                    .or(open4.eq(g0)).andNot(green0);
+            VectorMask<Integer> present1 = open0.eq(g1).or(open1.eq(g1)).or(open2.eq(g1)).or(open3.eq(g1))
+                    .or(open4.eq(g1)).andNot(green1);
+            VectorMask<Integer> present2 = open0.eq(g2).or(open1.eq(g2)).or(open2.eq(g2)).or(open3.eq(g2))
+                    .or(open4.eq(g2)).andNot(green2);
+            VectorMask<Integer> present3 = open0.eq(g3).or(open1.eq(g3)).or(open2.eq(g3)).or(open3.eq(g3))
+                    .or(open4.eq(g3)).andNot(green3);
+            VectorMask<Integer> present4 = open0.eq(g4).or(open1.eq(g4)).or(open2.eq(g4)).or(open3.eq(g4))
+                    .or(open4.eq(g4)).andNot(green4);
+
+            IntVector pattern = zero.blend(2 * WEIGHTS[0], green0)
+                    .add(zero.blend(2 * WEIGHTS[1], green1))
+                    .add(zero.blend(2 * WEIGHTS[2], green2))
+                    .add(zero.blend(2 * WEIGHTS[3], green3))
+                    .add(zero.blend(2 * WEIGHTS[4], green4))
+                    .add(zero.blend(WEIGHTS[0], present0))
+                    .add(zero.blend(WEIGHTS[1], present1))
+                    .add(zero.blend(WEIGHTS[2], present2))
+                    .add(zero.blend(WEIGHTS[3], present3))
+                    .add(zero.blend(WEIGHTS[4], present4));
+
+            pattern.intoArray(patterns, s);
+        }
+
+        scoreRange(packedGuess, s, patterns);
+    }
+
+}
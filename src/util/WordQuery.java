@@ -0,0 +1,158 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Describes a set of words for {@link PatternIndex}: fixed letters at some positions, letters ruled out at others, and
+ * lower and upper bounds on how often a letter occurs. The setters return the query so they can be chained:
+ *
+ * <pre>
+ * new WordQuery().pattern("?R?NE").exclude("ST").minCount('E', 1)
+ * </pre>
+ *
+ * Letters are case-insensitive and must be A-Z.
+ */
+public class WordQuery {
+
+    /** Characters that stand for "any letter" in a pattern **/
+    private static final String WILDCARDS = "?._*";
+
+    private String pattern;
+    private final int[] excludedAt = new int[32];
+    private final int[] minCounts = new int[26];
+    private final int[] maxCounts = new int[26];
+
+    public WordQuery() {
+
+        Arrays.fill(maxCounts, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Fixes letters by position. Each character is a letter, or one of {@code ? . _ *} for any letter; the pattern
+     * also fixes the word length.
+     *
+     * @param pattern The pattern, for example "?R?NE"
+     * @return This query
+     */
+    public WordQuery pattern(String pattern) {
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (WILDCARDS.indexOf(c) < 0) {
+                letterIndex(c);
+            }
+        }
+        this.pattern = pattern.toUpperCase();
+        return this;
+    }
+
+    /**
+     * Requires every given letter to occur at least once.
+     *
+     * @param letters The letters that must occur
+     * @return This query
+     */
+    public WordQuery include(String letters) {
+
+        for (int i = 0; i < letters.length(); i++) {
+            int letter = letterIndex(letters.charAt(i));
+            minCounts[letter] = Math.max(minCounts[letter], 1);
+        }
+        return this;
+    }
+
+    /**
+     * Rules out every given letter anywhere in the word.
+     *
+     * @param letters The letters that must not occur
+     * @return This query
+     */
+    public WordQuery exclude(String letters) {
+
+        for (int i = 0; i < letters.length(); i++) {
+            maxCounts[letterIndex(letters.charAt(i))] = 0;
+        }
+        return this;
+    }
+
+    /**
+     * Rules out a letter at one position, as for a letter marked PRESENT.
+     *
+     * @param position The letter position, from 0
+     * @param letter   The letter that must not be at that position
+     * @return This query
+     */
+    public WordQuery excludeAt(int position, char letter) {
+
+        if (position < 0 || position >= excludedAt.length) {
+            throw new IllegalArgumentException("Position out of range: " + position);
+        }
+        excludedAt[position] |= 1 << letterIndex(letter);
+        return this;
+    }
+
+    /**
+     * Requires a letter to occur at least the given number of times.
+     *
+     * @param letter The letter
+     * @param count  The minimum number of occurrences
+     * @return This query
+     */
+    public WordQuery minCount(char letter, int count) {
+
+        int index = letterIndex(letter);
+        minCounts[index] = Math.max(minCounts[index], count);
+        return this;
+    }
+
+    /**
+     * Allows a letter to occur at most the given number of times.
+     *
+     * @param letter The letter
+     * @param count  The maximum number of occurrences
+     * @return This query
+     */
+    public WordQuery maxCount(char letter, int count) {
+
+        int index = letterIndex(letter);
+        maxCounts[index] = Math.min(maxCounts[index], count);
+        return this;
+    }
+
+    /**
+     * @return The pattern, uppercase, or null if no pattern has been set
+     */
+    public String getPattern() {
+
+        return pattern;
+    }
+
+    /**
+     * @param position The letter position
+     * @return Bitmask of the letters (bit 0 = A) ruled out at that position
+     */
+    int getExcludedAt(int position) {
+
+        return position < excludedAt.length ? excludedAt[position] : 0;
+    }
+
+    int getMinCount(int letter) {
+
+        return minCounts[letter];
+    }
+
+    int getMaxCount(int letter) {
+
+        return maxCounts[letter];
+    }
+
+    private static int letterIndex(char c) {
+
+        int index = Character.toUpperCase(c) - 'A';
+        if (index < 0 || index >= 26) {
+            throw new IllegalArgumentException("Not a letter A-Z: '" + c + "'");
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,78 @@
+package util;
+
+import java.util.SplittableRandom;
+
+/**
+ * A shuffled order of the word list in which every word comes up exactly once per cycle. The whole state is a seed, a
+ * position and the size of the list: the permutation is rebuilt from the seed with a Fisher-Yates shuffle once, when
+ * the rotation is created or a new cycle starts, and is then simply walked.
+ */
+public class WordRotation {
+
+    private final int wordCount;
+    private final int[] order;
+    private long seed;
+    private int position;
+
+    /**
+     * @param wordCount The number of words in the list being rotated
+     * @param seed      The seed of the current cycle's shuffle
+     * @param position  The number of words of the current cycle already served
+     */
+    public WordRotation(int wordCount, long seed, int position) {
+
+        if (wordCount <= 0) {
+            throw new IllegalArgumentException("Cannot rotate through an empty word list");
+        }
+        this.wordCount = wordCount;
+        this.order = new int[wordCount];
+        this.seed = seed;
+        this.position = Math.max(0, Math.min(position, wordCount));
+        shuffle();
+    }
+
+    /**
+     * Advances the rotation, starting a new cycle with a fresh shuffle once every word has been served.
+     *
+     * @return The index of the next word
+     */
+    public int next() {
+
+        if (position >= wordCount) {
+            seed = new SplittableRandom(seed).nextLong();
+            position = 0;
+            shuffle();
+        }
+        return order[position++];
+    }
+
+    public int getWordCount() {
+
+        return wordCount;
+    }
+
+    public long getSeed() {
+
+        return seed;
+    }
+
+    public int getPosition() {
+
+        return position;
+    }
+
+    private void shuffle() {
+
+        for (int i = 0; i < wordCount; i++) {
+            order[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = wordCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+}
@@ -1,40 +1,221 @@
 package util;
 
+import datasource.RotationDatasource;
 import datasource.WordsDatasource;
+import metrics.GuessScoringEvent;
+import metrics.GuessValidationEvent;
+import metrics.Metrics;
+import metrics.SecretSelectionEvent;
 import model.TileState;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
 
 public class WordUtil {
 
-    /** List of all words from which a game word will be selected **/
-    private static final List<String> wordList = WordsDatasource.getWordList();
+    /** Number of letters in every word **/
+    public static final int WORD_LENGTH = 5;
 
-    /** Full dictionary of all known 5-letter words. Used to determine if a guess is a valid English word **/
-    private static final List<String> dictionary = WordsDatasource.getDictionary();
+    /** Number of distinct feedback patterns for a guess (3^5) **/
+    public static final int PATTERN_COUNT = 243;
+
+    /** The pattern code of a guess that matches the secret word exactly **/
+    public static final int ALL_CORRECT = PATTERN_COUNT - 1;
+
+    /** Place value of each letter position in a pattern code **/
+    private static final int[] PATTERN_WEIGHTS = {1, 3, 9, 27, 81};
+
+    /** The dictionary pack games are played with; the default language is loaded on first use **/
+    private static volatile DictionaryPack activePack;
+
+    /** Rebuilds word samplers off the calling thread **/
+    private static final ExecutorService samplerBuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "word-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Non-repeating order in which unlimited mode serves words of the active pack; loaded on first use **/
+    private static WordRotation wordRotation;
+
+    /**
+     * Switches the language games are played in, loading its dictionary pack if it is not in memory yet.
+     *
+     * @param language The language code, for example "en"
+     * @throws IllegalArgumentException If there is no pack for the language
+     */
+    public static void setLanguage(String language) {
+
+        DictionaryPack pack = DictionaryRegistry.getPack(language);
+        synchronized (WordUtil.class) {
+            if (activePack != pack) {
+                activePack = pack;
+                wordRotation = null;
+            }
+        }
+    }
+
+    /**
+     * @return The language code of the active dictionary pack
+     */
+    public static String getLanguage() {
+
+        return getDictionaryPack().getLanguage();
+    }
+
+    /**
+     * @return The dictionary pack games are currently played with
+     */
+    public static DictionaryPack getDictionaryPack() {
+
+        DictionaryPack pack = activePack;
+        if (pack == null) {
+            synchronized (WordUtil.class) {
+                if (activePack == null) {
+                    activePack = DictionaryRegistry.getPack(DictionaryRegistry.DEFAULT_LANGUAGE);
+                }
+                pack = activePack;
+            }
+        }
+        return pack;
+    }
 
     /**
-     * Checks if the given word is a valid english word in our word list.
+     * Checks if the given word is a valid word in the dictionary of the active language.
      *
      * @param word The word to be checked
      * @return True if the word is in the official word list, false if not.
      */
     public static boolean isValidWord(String word) {
 
-        return dictionary.contains(word.toUpperCase());
+        DictionaryPack pack = getDictionaryPack();
+
+        GuessValidationEvent event = new GuessValidationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean valid = pack.getPrefixTrie().contains(word.toUpperCase());
+        Metrics.WORD_VALIDATION.recordSince(start);
+
+        event.wordLength = word.length();
+        event.dictionarySize = pack.getDictionary().size();
+        event.valid = valid;
+        event.commit();
+
+        return valid;
+    }
+
+    /**
+     * Finds the valid words nearest to a word that was rejected, for a "did you mean" hint. The lookup walks a BK-tree
+     * and visits only a small part of the dictionary, so it is cheap enough for the FX thread.
+     *
+     * @param word  The rejected word
+     * @param limit The most suggestions to return
+     * @return The nearest valid words, best first; empty if none is close
+     */
+    public static List<String> getSuggestions(String word, int limit) {
+
+        return getDictionaryPack().getSuggestionTree().suggest(word.toUpperCase(), limit);
+    }
+
+    /**
+     * @param word The rejected word
+     * @return The status message for a word that is not in the dictionary, with up to three suggestions
+     */
+    public static String getNotInWordListMessage(String word) {
+
+        List<String> suggestions = getSuggestions(word, 3);
+        return suggestions.isEmpty()
+                ? "Not in word list!"
+                : "Not in word list! Did you mean " + String.join(", ", suggestions) + "?";
     }
 
     /**
-     * Provides a random word from the word list.
+     * Provides the trie over the dictionary, so callers can follow a guess letter by letter and find out as soon as
+     * no valid word starts with what has been typed so far.
+     *
+     * @return The dictionary prefix trie
+     */
+    public static PrefixTrie getPrefixTrie() {
+
+        return getDictionaryPack().getPrefixTrie();
+    }
+
+    /**
+     * Provides a random word from the word list. Common words are drawn more often than obscure ones, according to the
+     * optional weight column of the word list; each draw is O(1).
      *
      * @return Random word from the word list.
      */
     public static String getRandomWord() {
 
-        return wordList.get(new Random().nextInt(wordList.size()));
+        DictionaryPack pack = getDictionaryPack();
+        List<String> wordList = pack.getWordList();
+
+        // **********************************************************************************************
+        // Weights written since the sampler was built are picked up in the background; this draw still
+        // uses the current sampler
+        // **********************************************************************************************
+        if (pack.claimDatabaseChange()) {
+            reloadWordWeights(pack);
+        }
+
+        SecretSelectionEvent event = new SecretSelectionEvent();
+        event.begin();
+        String word = wordList.get(pack.getWordSampler().sample(ThreadLocalRandom.current()));
+
+        event.daily = false;
+        event.wordLength = word.length();
+        event.candidateCount = wordList.size();
+        event.commit();
+
+        return word;
+    }
+
+    /**
+     * Provides the next word of the unlimited-mode rotation. Every word of the word list is served once, in a shuffled
+     * order, before any word repeats; the position in the rotation is saved, so this holds across sessions too.
+     *
+     * @return The next word of the rotation
+     */
+    public static synchronized String getNextRotationWord() {
+
+        DictionaryPack pack = getDictionaryPack();
+        List<String> wordList = pack.getWordList();
+
+        SecretSelectionEvent event = new SecretSelectionEvent();
+        event.begin();
+
+        // **********************************************************************************************
+        // The shuffled order is rebuilt from the saved seed once per process, not once per game
+        // **********************************************************************************************
+        if (wordRotation == null) {
+            wordRotation = RotationDatasource.loadRotation(pack.getLanguage(), wordList.size());
+        }
+        String word = wordList.get(wordRotation.next());
+        RotationDatasource.writeRotationFile(pack.getLanguage(), wordRotation);
+
+        event.daily = false;
+        event.wordLength = word.length();
+        event.candidateCount = wordList.size();
+        event.commit();
+
+        return word;
+    }
+
+    /**
+     * Re-reads the word weights of a pack from its database and rebuilds its random word sampler in the background.
+     * Draws keep using the previous sampler until the new one is ready.
+     *
+     * @param pack The pack whose weights changed
+     */
+    private static void reloadWordWeights(DictionaryPack pack) {
+
+        samplerBuilder.execute(() -> pack.setWordWeights(WordsDatasource.getWordWeights(pack.getConnectionUrl())));
     }
 
     /**
@@ -45,6 +226,9 @@ public class WordUtil {
      */
     public static String getDailyWord() {
 
+        SecretSelectionEvent event = new SecretSelectionEvent();
+        event.begin();
+
         // **********************************************************************************************
         // Get today's date; this will be used to get the index of the word to retrieve from the database
         // **********************************************************************************************
@@ -56,7 +240,15 @@ public class WordUtil {
         long todaysWordIndex = Util.BASE_DATE.until(today, ChronoUnit.DAYS);
         System.out.println("Word Index: " + todaysWordIndex);
 
-        return WordsDatasource.getWordById(todaysWordIndex);
+        DictionaryPack pack = getDictionaryPack();
+        String word = WordsDatasource.getWordById(pack.getConnectionUrl(), todaysWordIndex);
+
+        event.daily = true;
+        event.wordLength = word == null ? 0 : word.length();
+        event.candidateCount = pack.getWordList().size();
+        event.commit();
+
+        return word;
 
     }
 
@@ -131,6 +323,9 @@ public class WordUtil {
      */
     public static TileState[] checkGuess(String guess, String secretWord) {
 
+        GuessScoringEvent event = new GuessScoringEvent();
+        event.begin();
+
         // **********************************************************************************************
         // The final array of `TileStates` to be returned
         // **********************************************************************************************
@@ -217,8 +412,134 @@ public class WordUtil {
             }
 
         }
+
+        if (event.shouldCommit()) {
+            event.wordLength = guess.length();
+            for (TileState state : states) {
+                if (state == TileState.CORRECT) {
+                    event.correctCount++;
+                } else if (state == TileState.PRESENT) {
+                    event.presentCount++;
+                }
+            }
+            event.commit();
+        }
+
         return states;
 
     }
 
+    /**
+     * Packs a 5-letter uppercase word into an int, 5 bits per letter with the first letter in the lowest bits. Packed
+     * words are the currency of the allocation-free scoring methods below.
+     *
+     * @param word The uppercase word to pack
+     * @return The packed word
+     */
+    public static int packWord(CharSequence word) {
+
+        int packed = 0;
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            packed |= (word.charAt(i) - 'A') << (5 * i);
+        }
+        return packed;
+    }
+
+    /**
+     * Reverses {@link #packWord(CharSequence)}.
+     *
+     * @param packed The packed word
+     * @return The uppercase word
+     */
+    public static String unpackWord(int packed) {
+
+        char[] letters = new char[WORD_LENGTH];
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            letters[i] = (char) ('A' + ((packed >>> (5 * i)) & 31));
+        }
+        return new String(letters);
+    }
+
+    /**
+     * Scores a packed guess against a packed secret word with exactly the rules of {@link #checkGuess(String,
+     * String)}, without allocating.
+     *
+     * @param packedGuess  The packed guess
+     * @param packedSecret The packed secret word
+     * @return The pattern code: one base-3 digit per position (0 = ABSENT, 1 = PRESENT, 2 = CORRECT), first letter in
+     * the lowest digit
+     */
+    public static int scoreGuess(int packedGuess, int packedSecret) {
+
+        // **********************************************************************************************
+        // Find the CORRECT positions, and collect the secret letters that sit in the other positions.
+        // A guess letter is PRESENT when one of those letters matches it (see checkGuess).
+        // **********************************************************************************************
+        int greenMask = 0;
+        int openLetters = 0;
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            int secretLetter = (packedSecret >>> (5 * i)) & 31;
+            if (secretLetter == ((packedGuess >>> (5 * i)) & 31)) {
+                greenMask |= 1 << i;
+            } else {
+                openLetters |= 1 << secretLetter;
+            }
+        }
+
+        int pattern = 0;
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            if ((greenMask & (1 << i)) != 0) {
+                pattern += 2 * PATTERN_WEIGHTS[i];
+            } else if ((openLetters & (1 << ((packedGuess >>> (5 * i)) & 31))) != 0) {
+                pattern += PATTERN_WEIGHTS[i];
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Scores one guess against many secret words in a single pass.
+     *
+     * @param packedGuess   The packed guess
+     * @param packedSecrets The packed secret words
+     * @param count         The number of secrets (from the start of the array) to score
+     * @param patterns      Receives the pattern code for each secret
+     */
+    public static void scoreGuess(int packedGuess, int[] packedSecrets, int count, int[] patterns) {
+
+        for (int i = 0; i < count; i++) {
+            patterns[i] = scoreGuess(packedGuess, packedSecrets[i]);
+        }
+    }
+
+    /**
+     * @param pattern  A pattern code from {@link #scoreGuess(int, int)}
+     * @param position The letter position
+     * @return The TileState for the given position
+     */
+    public static TileState getTileState(int pattern, int position) {
+
+        switch (pattern / PATTERN_WEIGHTS[position] % 3) {
+            case 2:
+                return TileState.CORRECT;
+            case 1:
+                return TileState.PRESENT;
+            default:
+                return TileState.ABSENT;
+        }
+    }
+
+    /**
+     * @param pattern A pattern code from {@link #scoreGuess(int, int)}
+     * @return The TileStates for every position, as returned by {@link #checkGuess(String, String)}
+     */
+    public static TileState[] getTileStates(int pattern) {
+
+        TileState[] states = new TileState[WORD_LENGTH];
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            states[i] = getTileState(pattern, i);
+        }
+        return states;
+    }
+
 }